@@ -0,0 +1,29 @@
+package dungeon.console;
+
+import dungeon.engine.GameEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks drawing the console map, which happens after every move in console mode.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConsoleGameBenchmark {
+
+    @Param({"10", "100"})
+    public int size;
+
+    private GameEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new GameEngine(size, 3, null, 42L);
+    }
+
+    @Benchmark
+    public String printMap() {
+        return ConsoleGame.renderMap(engine);
+    }
+}
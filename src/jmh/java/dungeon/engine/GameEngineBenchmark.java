@@ -0,0 +1,116 @@
+package dungeon.engine;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the hot paths of the GameEngine: moving, mutant attacks,
+ * map generation, path finding, solving levels and saving/loading.
+ * Every engine is seeded so each run measures the same dungeons.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GameEngineBenchmark {
+
+    private static final long SEED = 42L;
+
+    private GameEngine moveEngine; // Low difficulty so the player survives the move loop
+    private GameEngine attackEngine; // Player surrounded by ranged mutants
+    private GameEngine solveEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        moveEngine = new GameEngine(10, 0, null, SEED);
+        solveEngine = new GameEngine(10, 3, null, SEED);
+
+        attackEngine = new GameEngine(10, 10, null, SEED);
+        Board board = attackEngine.getBoard();
+        int row = attackEngine.getPlayer().getRow();
+        for (int col = 1; col <= 2; col++) {
+            board.setObject(row, col, Board.RANGED_MUTANT);
+        }
+        for (int r = row - 2; r < row; r++) {
+            board.setObject(r, 0, Board.RANGED_MUTANT);
+        }
+    }
+
+    /**
+     * Two moves up and down, then the steps and HP are reset so the game never ends.
+     */
+    @Benchmark
+    public int movePlayer() {
+        moveEngine.movePlayer(true, true);
+        moveEngine.movePlayer(true, false);
+        moveEngine.setCurrSteps(0);
+        moveEngine.setPlayerHP(moveEngine.getPlayerMaxHP());
+        return moveEngine.getPlayer().getRow();
+    }
+
+    /**
+     * One round of attacks from four ranged mutants in range of the player.
+     */
+    @Benchmark
+    public int checkMutantAttacks() {
+        attackEngine.setPlayerHP(attackEngine.getPlayerMaxHP());
+        attackEngine.checkMutantAttacks();
+        return attackEngine.getPlayerHP();
+    }
+
+    /**
+     * Creating an engine generates its first level.
+     */
+    @State(Scope.Thread)
+    public static class GenerateState {
+        @Param({"10", "100", "500", "2000"})
+        public int size;
+
+        @Param({"0", "5", "10"})
+        public int difficulty;
+
+        public long seed = SEED;
+    }
+
+    @Benchmark
+    public GameEngine generateMap(GenerateState state) {
+        return new GameEngine(state.size, state.difficulty, null, state.seed++);
+    }
+
+    /**
+     * A 1000x1000 level, searched from the player's corner.
+     */
+    @State(Scope.Thread)
+    public static class PathState {
+        public GameEngine engine;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            engine = new GameEngine(1000, 5, null, SEED);
+        }
+    }
+
+    @Benchmark
+    public int findPathAcross(PathState state) {
+        return state.engine.getPathFinder().findPath(999, 0, 0, 999, PathFinder.Weights.AVOID_DANGER);
+    }
+
+    @Benchmark
+    public int findNearestLadder(PathState state) {
+        return state.engine.getPathFinder().findNearest(999, 0, Board.LADDER, PathFinder.Weights.AVOID_DANGER);
+    }
+
+    /**
+     * A whole 10x10 level at a middling difficulty, with a fresh transposition table each time.
+     */
+    @Benchmark
+    public Solver.Solution solveLevel() {
+        return Solver.solve(solveEngine);
+    }
+
+    @Benchmark
+    public int saveAndLoadGame() {
+        moveEngine.saveGame();
+        moveEngine.loadGame();
+        return moveEngine.getCurrSteps();
+    }
+}
@@ -0,0 +1,70 @@
+package dungeon.engine;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks opening the leaderboard, which happens every time the leaderboard window opens.
+ * The scores file is generated in a temporary directory with the given number of games,
+ * and opened once so its index and records exist, as they would after the first game.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LeaderboardBenchmark {
+
+    @Param({"100", "100000", "2000000"})
+    public int games;
+
+    private Path scores;
+    private Leaderboard leaderboard;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        scores = Files.createTempFile("scores", ".txt");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(scores))) {
+            // Games spread evenly over a year, in the order they ended
+            long start = ScoreEntry.startOfDay("2025-01-01");
+            long spacing = 365L * 24 * 60 * 60 * 1000 / games;
+            for (int i = 0; i < games; i++) {
+                ScoreEntry entry = ScoreEntry.of((i * 7919) % 60, i % 11, i % 3, (i * 31) % 100, start + i * spacing);
+                writer.println(entry.getScore() + " " + entry.getDate() + " " + entry.getDifficulty() + " "
+                        + entry.getLevelsCleared() + " " + entry.getSteps() + " " + entry.getTimestamp());
+            }
+        }
+        leaderboard = Leaderboard.open(scores, Leaderboard.DEFAULT_CAPACITY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(scores);
+        Files.deleteIfExists(Leaderboard.indexPath(scores));
+        Files.deleteIfExists(Leaderboard.recordsPath(scores));
+    }
+
+    @Benchmark
+    public List<ScoreEntry> loadTopScores() {
+        return Leaderboard.open(scores, Leaderboard.DEFAULT_CAPACITY).top(5);
+    }
+
+    @Benchmark
+    public List<ScoreEntry> topScoresOfDifficulty() {
+        return leaderboard.top(5, 7);
+    }
+
+    @Benchmark
+    public List<ScoreEntry> topScoresOfWeek() {
+        return leaderboard.top(5, LocalDate.of(2025, 6, 2), LocalDate.of(2025, 6, 8));
+    }
+
+    @Benchmark
+    public double percentileRank() {
+        return leaderboard.percentileRank(42);
+    }
+}
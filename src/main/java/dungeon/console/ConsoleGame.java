@@ -0,0 +1,128 @@
+package dungeon.console;
+
+import dungeon.engine.Board;
+import dungeon.engine.DifficultyTable;
+import dungeon.engine.GameEngine;
+import dungeon.engine.GameEvent;
+import dungeon.engine.GameListener;
+import dungeon.engine.Rng;
+
+import java.util.Scanner;
+
+/**
+ * Console front end for the dungeon game.
+ * Prints the map and events to standard output and reads moves from standard input.
+ */
+public class ConsoleGame implements GameListener {
+
+    private static final int SIZE = 10; // Default size of the game board
+
+    private final Scanner scanner; // Scanner for console input
+
+    public ConsoleGame(Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * Runs the console loop for the game.
+     * This method continuously prompts the player for input and processes their moves.
+     * It displays the current steps, player HP, and score after each move.
+     *
+     * @param engine the engine to play, created with this object as its listener.
+     */
+    public void runConsoleLoop(GameEngine engine) {
+        printMap(engine);
+        while (!engine.isGameOver()) {
+            System.out.println("Current Steps: " + engine.getCurrSteps() + "/" + engine.getMaxSteps());
+            System.out.println("Player HP: " + engine.getPlayerHP() + "/" + engine.getPlayerMaxHP());
+            System.out.println("Score: " + engine.getScore());
+            System.out.print("Move (u/d/l/r): ");
+            String input = scanner.nextLine().trim().toLowerCase();
+
+            switch (input) {
+                case "u": engine.movePlayer(true, true); break;
+                case "d": engine.movePlayer(true, false); break;
+                case "r": engine.movePlayer(false, true); break;
+                case "l": engine.movePlayer(false, false); break;
+                default: System.err.println("Invalid input!");
+            }
+        }
+    }
+
+    @Override
+    public void onEvent(GameEvent event) {
+        System.out.println("> " + event.getColor() + event.getMessage() + GameEngine.RESET + " <");
+    }
+
+    @Override
+    public void onBoardChanged(GameEngine engine) {
+        System.out.println("--------------------------------------");
+        printMap(engine);
+    }
+
+    @Override
+    public void onGameOver(GameEngine engine, String message, boolean won) {
+        System.out.println(GameEngine.BOLD + message.replace("\n", "") + GameEngine.RESET);
+    }
+
+    /**
+     * Prints the current game map to the console.
+     *
+     * @param engine the engine whose current level is printed.
+     */
+    private void printMap(GameEngine engine) {
+        System.out.print(renderMap(engine));
+    }
+
+    /**
+     * Draws the current game map as text.
+     * The player is represented by '@', walls by '#', and empty cells by '.'.
+     *
+     * @param engine the engine whose current level is drawn.
+     * @return the map, one line per row.
+     */
+    public static String renderMap(GameEngine engine) {
+        Board board = engine.getBoard();
+        StringBuilder out = new StringBuilder((board.getSize() + 3) * (board.getSize() + 2));
+        for (int x = -1; x < board.getSize() + 1; x++) {
+            for (int y = -1; y < board.getSize() + 1; y++) {
+                if (x < 0 || y < 0 || x == board.getSize() || y == board.getSize()) {
+                    // Print borders
+                    out.append('#');
+                } else if (x == engine.getPlayer().getRow() && y == engine.getPlayer().getCol()) {
+                    // If this cell is the player's location, show @ instead of the game object
+                    out.append('@');
+                } else {
+                    out.append(board.getSymbol(x, y));
+                }
+            }
+            out.append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+
+    /**
+     * Main method to run the game in console mode.
+     */
+    public static void main(String[] args) {
+        System.out.print("Enter difficulty (0-10, default is 3): ");
+        int difficulty = 3;
+        Scanner scanner = new Scanner(System.in);
+        String input = scanner.nextLine().trim();
+        if (!input.isEmpty()) {
+            try {
+                difficulty = Integer.parseInt(input);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input, using default difficulty 3.");
+            }
+        }
+        if (difficulty < 0 || difficulty > 10) {
+            System.out.println("Difficulty capped at " + Math.max(0, Math.min(10, difficulty)) + ".");
+        }
+
+        ConsoleGame console = new ConsoleGame(scanner);
+        GameEngine engine = new GameEngine(SIZE, difficulty, console, Rng.randomSeed(), GameEngine.DEFAULT_LEVELS,
+                DifficultyTable.getDefault());
+        console.runConsoleLoop(engine);
+    }
+}
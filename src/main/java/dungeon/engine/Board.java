@@ -0,0 +1,339 @@
+package dungeon.engine;
+
+import dungeon.engine.gameobjects.*;
+
+import java.util.Arrays;
+
+/**
+ * A compact representation of one dungeon level.
+ * Every cell is packed into a single byte (row by row):
+ * the low four bits hold the object type and the next two bits hold the floor tile variant.
+ * The bytes are split into leaves of a two level tree, about as many leaves as cells in a leaf, so that
+ * {@link #copy()} takes no time at all: the copy shares the tree, and whichever board changes a shared
+ * leaf first copies that leaf and the list of leaves (path copying), not the whole level.
+ * Game objects have no per-instance state, so one shared instance per type is used
+ * whenever the engine needs to call into an object.
+ * The board also counts the ranged mutants in every row and column so attack checks
+ * can skip rows and columns that have none.
+ */
+public class Board {
+
+    /**
+     * Object type codes stored in the low bits of each cell.
+     */
+    public static final int EMPTY = 0;
+    public static final int ENTRANCE = 1;
+    public static final int LADDER = 2;
+    public static final int TRAP = 3;
+    public static final int GOLD = 4;
+    public static final int MELEE_MUTANT = 5;
+    public static final int RANGED_MUTANT = 6;
+    public static final int HEALTH_POTION = 7;
+
+    private static final int OBJECT_MASK = 0x0F;
+    private static final int FLOOR_SHIFT = 4;
+    private static final int FLOOR_MASK = 0x03;
+
+    // Shared game object, console symbol and save file name for each type code
+    private static final GameObject[] OBJECTS = {
+            null, new Entrance(), new Ladder(), new Trap(), new Gold(),
+            new MeleeMutant(), new RangedMutant(), new HealthPotion()
+    };
+    private static final char[] SYMBOLS = {'.', 'E', 'L', 'T', 'G', 'M', 'R', 'H'};
+    private static final String[] NAMES = {
+            "None", "Entrance", "Ladder", "Trap", "Gold", "MeleeMutant", "RangedMutant", "HealthPotion"
+    };
+
+    private static final int MIN_LEAF_BITS = 6; // Small boards still get leaves of 64 cells
+
+    private final int size;
+    private final int leafBits; // Cells in a leaf, as a power of two
+    private final int leafMask;
+    // The tree: shared with copies of the board until it is changed
+    private byte[][] leaves;
+    private Object[] leafOwners; // The board that may change each leaf in place
+    private int[] rangedInRow; // Number of ranged mutants in each row
+    private int[] rangedInCol; // Number of ranged mutants in each column
+    private Object rootOwner; // The board that may change the arrays above in place
+    private Object owner = new Object(); // Changed whenever the board is copied, so nothing shared is changed
+
+    /**
+     * Creates an empty square board.
+     *
+     * @param size the width and height of the board.
+     */
+    public Board(int size) {
+        this.size = size;
+        int cells = size * size;
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, cells - 1));
+        this.leafBits = Math.max(MIN_LEAF_BITS, (bits + 1) / 2);
+        this.leafMask = (1 << leafBits) - 1;
+        this.leaves = new byte[(cells + leafMask) >>> leafBits][];
+        for (int leaf = 0; leaf < leaves.length; leaf++) {
+            leaves[leaf] = new byte[Math.min(leafMask + 1, cells - (leaf << leafBits))];
+        }
+        this.leafOwners = new Object[leaves.length];
+        Arrays.fill(leafOwners, owner);
+        this.rangedInRow = new int[size];
+        this.rangedInCol = new int[size];
+        this.rootOwner = owner;
+    }
+
+    /**
+     * Creates a board that shares the tree of another board.
+     */
+    private Board(Board other) {
+        this.size = other.size;
+        this.leafBits = other.leafBits;
+        this.leafMask = other.leafMask;
+        this.leaves = other.leaves;
+        this.leafOwners = other.leafOwners;
+        this.rangedInRow = other.rangedInRow;
+        this.rangedInCol = other.rangedInCol;
+        // Neither board owns anything now, so the first change to each part copies it
+        other.owner = new Object();
+    }
+
+    /**
+     * Returns a copy of this board in constant time. The two boards share their cells until either one changes,
+     * and then only the changed leaf of cells and the list of leaves are copied.
+     * This is what game snapshots are made of.
+     *
+     * @return the copy, which can be changed without changing this board.
+     */
+    public Board copy() {
+        return new Board(this);
+    }
+
+    /**
+     * Creates a board from packed cells, e.g. read from a save file.
+     *
+     * @param size  the width and height of the board.
+     * @param cells the packed cells, row by row, as returned by {@link #toBytes()}.
+     * @return the new board.
+     */
+    public static Board fromBytes(int size, byte[] cells) {
+        Board board = new Board(size);
+        for (int leaf = 0; leaf < board.leaves.length; leaf++) {
+            System.arraycopy(cells, leaf << board.leafBits, board.leaves[leaf], 0, board.leaves[leaf].length);
+        }
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (board.getObject(row, col) == RANGED_MUTANT) {
+                    board.rangedInRow[row]++;
+                    board.rangedInCol[col]++;
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Packs an object type and a floor tile into a cell, as used by {@link #fromBytes(int, byte[])}.
+     *
+     * @param type      the object type code.
+     * @param floorTile the floor tile variant.
+     * @return the packed cell.
+     */
+    static byte pack(int type, int floorTile) {
+        return (byte) ((type & OBJECT_MASK) | ((floorTile & FLOOR_MASK) << FLOOR_SHIFT));
+    }
+
+    /**
+     * Returns a copy of the packed cells, row by row.
+     *
+     * @return the packed cells.
+     */
+    public byte[] toBytes() {
+        byte[] cells = new byte[size * size];
+        for (int leaf = 0; leaf < leaves.length; leaf++) {
+            System.arraycopy(leaves[leaf], 0, cells, leaf << leafBits, leaves[leaf].length);
+        }
+        return cells;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the object type code at the given cell.
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return one of the type constants, EMPTY if there is no object.
+     */
+    public int getObject(int row, int col) {
+        return getObject(row * size + col);
+    }
+
+    /**
+     * Returns the object type code at a cell given by its index, row * size + col.
+     *
+     * @param index the index of the cell.
+     * @return one of the type constants, EMPTY if there is no object.
+     */
+    int getObject(int index) {
+        return leaves[index >>> leafBits][index & leafMask] & OBJECT_MASK;
+    }
+
+    /**
+     * Sets the object type code at the given cell, keeping its floor tile.
+     * The ranged mutant counts of the row and column are updated as well.
+     *
+     * @param row  the row of the cell.
+     * @param col  the column of the cell.
+     * @param type one of the type constants, EMPTY to clear the cell.
+     */
+    public void setObject(int row, int col, int type) {
+        int i = row * size + col;
+        int old = getObject(i);
+        if (old == type) return; // Nothing to copy
+        byte[] leaf = leafToChange(i);
+        if (old == RANGED_MUTANT) {
+            rangedInRow[row]--;
+            rangedInCol[col]--;
+        }
+        if (type == RANGED_MUTANT) {
+            rangedInRow[row]++;
+            rangedInCol[col]++;
+        }
+        leaf[i & leafMask] = (byte) ((leaf[i & leafMask] & ~OBJECT_MASK) | type);
+    }
+
+    /**
+     * Returns the leaf holding a cell, first copying it and the list of leaves if they are shared with a copy.
+     *
+     * @param index the index of the cell, row * size + col.
+     * @return the leaf, which this board may change.
+     */
+    private byte[] leafToChange(int index) {
+        if (rootOwner != owner) {
+            leaves = leaves.clone();
+            leafOwners = leafOwners.clone();
+            rangedInRow = rangedInRow.clone();
+            rangedInCol = rangedInCol.clone();
+            rootOwner = owner;
+        }
+        int leaf = index >>> leafBits;
+        if (leafOwners[leaf] != owner) {
+            leaves[leaf] = leaves[leaf].clone();
+            leafOwners[leaf] = owner;
+        }
+        return leaves[leaf];
+    }
+
+    /**
+     * Returns the number of ranged mutants in a row.
+     *
+     * @param row the row to check.
+     * @return the number of ranged mutants in the row.
+     */
+    public int getRangedInRow(int row) {
+        return rangedInRow[row];
+    }
+
+    /**
+     * Returns the number of ranged mutants in a column.
+     *
+     * @param col the column to check.
+     * @return the number of ranged mutants in the column.
+     */
+    public int getRangedInCol(int col) {
+        return rangedInCol[col];
+    }
+
+    /**
+     * Returns the floor tile variant of the given cell.
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the floor tile index, between 0 and {@link GameEngine#FLOOR_TILES} - 1.
+     */
+    public int getFloorTile(int row, int col) {
+        int i = row * size + col;
+        return (leaves[i >>> leafBits][i & leafMask] >> FLOOR_SHIFT) & FLOOR_MASK;
+    }
+
+    /**
+     * Sets the floor tile variant of the given cell, keeping its object.
+     *
+     * @param row  the row of the cell.
+     * @param col  the column of the cell.
+     * @param tile the floor tile index, between 0 and {@link GameEngine#FLOOR_TILES} - 1.
+     */
+    public void setFloorTile(int row, int col, int tile) {
+        int i = row * size + col;
+        byte[] leaf = leafToChange(i);
+        leaf[i & leafMask] = (byte) ((leaf[i & leafMask] & OBJECT_MASK) | (tile << FLOOR_SHIFT));
+    }
+
+    /**
+     * Returns the shared game object for the given cell.
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the game object, or null if the cell is empty.
+     */
+    public GameObject getGameObject(int row, int col) {
+        return OBJECTS[getObject(row, col)];
+    }
+
+    /**
+     * Returns the console symbol for the given cell, '.' if it is empty.
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the symbol of the object in the cell.
+     */
+    public char getSymbol(int row, int col) {
+        return SYMBOLS[getObject(row, col)];
+    }
+
+    /**
+     * Returns the shared game object for a type code.
+     *
+     * @param type one of the type constants.
+     * @return the game object, or null for EMPTY.
+     */
+    public static GameObject objectOf(int type) {
+        return OBJECTS[type];
+    }
+
+    /**
+     * Returns the type code of a game object.
+     *
+     * @param go the game object, may be null.
+     * @return the matching type constant, EMPTY for null or objects that can't be placed on a board.
+     */
+    public static int typeOf(GameObject go) {
+        if (go == null) return EMPTY;
+        for (int type = 1; type < SYMBOLS.length; type++) {
+            if (SYMBOLS[type] == go.getSymbol()) return type;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Returns the name used for a type code in save files, e.g. "Gold" or "None".
+     *
+     * @param type one of the type constants.
+     * @return the name of the type.
+     */
+    public static String nameOf(int type) {
+        return NAMES[type];
+    }
+
+    /**
+     * Returns the type code for a name used in save files.
+     *
+     * @param name the name of the type, e.g. "Gold" or "None".
+     * @return the matching type constant, or -1 if the name is unknown.
+     */
+    public static int typeOf(String name) {
+        for (int type = 0; type < NAMES.length; type++) {
+            if (NAMES[type].equals(name)) return type;
+        }
+        return -1;
+    }
+}
@@ -1,17 +1,16 @@
 package dungeon.engine;
 
 import dungeon.engine.gameobjects.GameObject;
-import javafx.scene.image.Image;
-import javafx.scene.layout.StackPane;
 
 /**
  * Represents a cell in the dungeon grid.
- * Each cell can contain a GameObject and has a floor tile image.
+ * Each cell can contain a GameObject and has a floor tile variant.
+ * Cells are plain model objects, the GUI creates its own nodes to draw them.
  */
-public class Cell extends StackPane {
+public class Cell {
 
     private GameObject go = null;
-    private Image floorTile;
+    private int floorTile;
 
     public void setGameObject(GameObject go) {
         this.go = go;
@@ -21,11 +20,11 @@ public class Cell extends StackPane {
         return go;
     }
 
-    public void setFloorTile(Image tile) {
+    public void setFloorTile(int tile) {
         this.floorTile = tile;
     }
 
-    public Image getFloorTile() {
+    public int getFloorTile() {
         return floorTile;
     }
 
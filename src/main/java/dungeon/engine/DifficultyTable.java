@@ -0,0 +1,201 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * How many of each object a level has at each difficulty, from 0 to {@link #MAX_DIFFICULTY}.
+ * Counts are for a 10x10 board; larger boards get proportionally more of everything but the ladder.
+ * Engines use {@link #LINEAR} unless they are given a table: the original levels, with one ranged mutant
+ * per point of difficulty. The games people play use the default table instead, which is loaded from
+ * {@link #DEFAULT_PATH} if it exists, e.g. as written by the calibration tool, so tests and simulations
+ * don't depend on whether a table was calibrated.
+ * Tables are saved as CSV text, one line per difficulty after a header line.
+ */
+public final class DifficultyTable {
+
+    public static final Path DEFAULT_PATH = SaveFile.DEFAULT_PATH.resolveSibling("difficulty.csv");
+    public static final int MAX_DIFFICULTY = 10;
+
+    static final String HEADER = "difficulty,traps,gold,melee_mutants,ranged_mutants,health_potions";
+    private static final int MAX_OBJECTS = 10 * 10 - 2; // Everything but the entrance and the ladder
+
+    /**
+     * The objects of one level on a 10x10 board, apart from the entrance and the ladder.
+     *
+     * @param traps         the number of traps.
+     * @param gold          the number of gold coins.
+     * @param meleeMutants  the number of melee mutants.
+     * @param rangedMutants the number of ranged mutants.
+     * @param healthPotions the number of health potions.
+     */
+    public record Counts(int traps, int gold, int meleeMutants, int rangedMutants, int healthPotions) {
+
+        /**
+         * Returns the total number of objects.
+         *
+         * @return the number of objects.
+         */
+        public int total() {
+            return traps + gold + meleeMutants + rangedMutants + healthPotions;
+        }
+    }
+
+    /**
+     * The original levels: 5 traps, 5 gold, 3 melee mutants, 2 health potions and as many ranged mutants as the difficulty.
+     */
+    public static final DifficultyTable LINEAR = linear();
+
+    private final Counts[] levels;
+
+    /**
+     * Creates a table.
+     *
+     * @param levels the counts of each difficulty, from 0 to {@link #MAX_DIFFICULTY}.
+     * @throws IllegalArgumentException if a difficulty is missing, or has negative counts or more objects than fit.
+     */
+    public DifficultyTable(List<Counts> levels) {
+        if (levels.size() != MAX_DIFFICULTY + 1) {
+            throw new IllegalArgumentException("A difficulty table needs " + (MAX_DIFFICULTY + 1) + " difficulties");
+        }
+        for (Counts counts : levels) {
+            if (counts.traps() < 0 || counts.gold() < 0 || counts.meleeMutants() < 0 || counts.rangedMutants() < 0
+                    || counts.healthPotions() < 0 || counts.total() > MAX_OBJECTS) {
+                throw new IllegalArgumentException("Invalid object counts: " + counts);
+            }
+        }
+        this.levels = levels.toArray(new Counts[0]);
+    }
+
+    private static DifficultyTable linear() {
+        Counts[] levels = new Counts[MAX_DIFFICULTY + 1];
+        for (int difficulty = 0; difficulty <= MAX_DIFFICULTY; difficulty++) {
+            levels[difficulty] = new Counts(5, 5, 3, difficulty, 2);
+        }
+        return new DifficultyTable(List.of(levels));
+    }
+
+    /**
+     * Holder class so the default table is loaded on first use, exactly once.
+     */
+    private static final class Holder {
+        static final DifficultyTable INSTANCE = loadDefault();
+
+        private static DifficultyTable loadDefault() {
+            if (!Files.exists(DEFAULT_PATH)) return LINEAR;
+            try {
+                return read(DEFAULT_PATH);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error loading difficulty table, using the default: " + e.getMessage());
+                return LINEAR;
+            }
+        }
+    }
+
+    /**
+     * Returns the table the console and GUI games are played with.
+     *
+     * @return the table at {@link #DEFAULT_PATH}, or {@link #LINEAR} if there is none.
+     */
+    public static DifficultyTable getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the counts of a difficulty.
+     *
+     * @param difficulty the difficulty, capped between 0 and {@link #MAX_DIFFICULTY}.
+     * @return the counts.
+     */
+    public Counts get(int difficulty) {
+        return levels[Math.max(0, Math.min(MAX_DIFFICULTY, difficulty))];
+    }
+
+    /**
+     * Returns a copy of this table with the counts of one difficulty replaced.
+     *
+     * @param difficulty the difficulty, from 0 to {@link #MAX_DIFFICULTY}.
+     * @param counts     the new counts.
+     * @return the new table.
+     */
+    public DifficultyTable with(int difficulty, Counts counts) {
+        Counts[] copy = levels.clone();
+        copy[difficulty] = counts;
+        return new DifficultyTable(Arrays.asList(copy));
+    }
+
+    /**
+     * Reads a table from a CSV file.
+     *
+     * @param path the file.
+     * @return the table.
+     * @throws IOException if the file can't be read.
+     * @throws IllegalArgumentException if the file is not a valid table.
+     */
+    public static DifficultyTable read(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).trim().equals(HEADER)) {
+            throw new IllegalArgumentException("Not a difficulty table");
+        }
+        Counts[] levels = new Counts[MAX_DIFFICULTY + 1];
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) continue;
+            String[] parts = line.trim().split(",");
+            if (parts.length != 6) {
+                throw new IllegalArgumentException("Invalid difficulty line: " + line);
+            }
+            int difficulty = Integer.parseInt(parts[0]);
+            if (difficulty < 0 || difficulty > MAX_DIFFICULTY) {
+                throw new IllegalArgumentException("Invalid difficulty: " + difficulty);
+            }
+            levels[difficulty] = new Counts(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                    Integer.parseInt(parts[3]), Integer.parseInt(parts[4]), Integer.parseInt(parts[5]));
+        }
+        if (Arrays.asList(levels).contains(null)) {
+            throw new IllegalArgumentException("Difficulty table is missing difficulties");
+        }
+        return new DifficultyTable(List.of(levels));
+    }
+
+    /**
+     * Writes this table to a CSV file, replacing it in one step.
+     *
+     * @param path the file.
+     * @throws IOException if the file can't be written.
+     */
+    public void write(Path path) throws IOException {
+        SaveFile.writeAtomically(ByteBuffer.wrap(toString().getBytes(StandardCharsets.UTF_8)), path);
+    }
+
+    /**
+     * Formats this table as CSV, as it is written to a file.
+     *
+     * @return the CSV text.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(HEADER).append('\n');
+        for (int difficulty = 0; difficulty <= MAX_DIFFICULTY; difficulty++) {
+            Counts counts = levels[difficulty];
+            text.append(difficulty).append(',').append(counts.traps()).append(',').append(counts.gold())
+                    .append(',').append(counts.meleeMutants()).append(',').append(counts.rangedMutants())
+                    .append(',').append(counts.healthPotions()).append('\n');
+        }
+        return text.toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DifficultyTable table && Arrays.equals(levels, table.levels);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(levels);
+    }
+}
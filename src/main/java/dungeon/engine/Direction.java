@@ -0,0 +1,80 @@
+package dungeon.engine;
+
+/**
+ * The four directions the player can move in.
+ * Each direction matches a pair of arguments to {@link GameEngine#movePlayer(boolean, boolean)}.
+ */
+public enum Direction {
+    UP(true, true),
+    DOWN(true, false),
+    LEFT(false, false),
+    RIGHT(false, true);
+
+    private static final Direction[] VALUES = values();
+
+    private final boolean vertical;
+    private final boolean upRight;
+
+    Direction(boolean vertical, boolean upRight) {
+        this.vertical = vertical;
+        this.upRight = upRight;
+    }
+
+    /**
+     * Returns whether this is a vertical move.
+     *
+     * @return true for up and down, false for left and right.
+     */
+    public boolean isVertical() {
+        return vertical;
+    }
+
+    /**
+     * Returns whether this is a move up or right.
+     *
+     * @return true for up and right, false for down and left.
+     */
+    public boolean isUpRight() {
+        return upRight;
+    }
+
+    /**
+     * Returns how this direction changes the player's row.
+     *
+     * @return -1 for up, 1 for down, 0 for left and right.
+     */
+    public int getRowStep() {
+        return vertical ? (upRight ? -1 : 1) : 0;
+    }
+
+    /**
+     * Returns how this direction changes the player's column.
+     *
+     * @return -1 for left, 1 for right, 0 for up and down.
+     */
+    public int getColStep() {
+        return vertical ? 0 : (upRight ? 1 : -1);
+    }
+
+    /**
+     * Returns the direction for a pair of movePlayer arguments.
+     *
+     * @param vertical true if the movement is vertical (up/down), false for horizontal (left/right)
+     * @param upRight  true if moving up or right, false for down or left
+     * @return the matching direction.
+     */
+    public static Direction of(boolean vertical, boolean upRight) {
+        if (vertical) return upRight ? UP : DOWN;
+        return upRight ? RIGHT : LEFT;
+    }
+
+    /**
+     * Returns the direction with the given ordinal.
+     *
+     * @param ordinal the ordinal of the direction.
+     * @return the direction, or null if there is none with that ordinal.
+     */
+    public static Direction fromOrdinal(int ordinal) {
+        return (ordinal >= 0 && ordinal < VALUES.length) ? VALUES[ordinal] : null;
+    }
+}
@@ -0,0 +1,111 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+/**
+ * Publishes game events to subscribers without allocating.
+ * Events are written into a preallocated ring of {@link GameEvent} slots and handed to
+ * each subscriber straight away; the ring keeps the most recent events for later inspection.
+ * With no subscribers publishing an event only fills in a slot.
+ */
+public class EventBus {
+
+    /**
+     * Receives events from an EventBus.
+     * The event is only valid during the call, it is reused when the ring wraps around.
+     */
+    @FunctionalInterface
+    public interface Subscriber {
+        void onEvent(GameEvent event);
+    }
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final GameEvent[] ring;
+    private final int mask;
+    private long sequence = 0; // Sequence number of the last published event
+    private Subscriber[] subscribers = new Subscriber[0];
+
+    /**
+     * Creates a bus that keeps the last {@link #DEFAULT_CAPACITY} events.
+     */
+    public EventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a bus that keeps the most recent events.
+     *
+     * @param capacity the minimum number of events to keep, rounded up to a power of two.
+     */
+    public EventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        ring = new GameEvent[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new GameEvent();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Adds a subscriber, it will receive every event published from now on.
+     *
+     * @param subscriber the subscriber to add.
+     */
+    public void subscribe(Subscriber subscriber) {
+        subscribers = Arrays.copyOf(subscribers, subscribers.length + 1);
+        subscribers[subscribers.length - 1] = subscriber;
+    }
+
+    /**
+     * Removes a subscriber that was added with {@link #subscribe}.
+     *
+     * @param subscriber the subscriber to remove.
+     */
+    public void unsubscribe(Subscriber subscriber) {
+        Subscriber[] remaining = new Subscriber[subscribers.length];
+        int count = 0;
+        for (Subscriber s : subscribers) {
+            if (s != subscriber) remaining[count++] = s;
+        }
+        subscribers = Arrays.copyOf(remaining, count);
+    }
+
+    /**
+     * Publishes an event to every subscriber.
+     *
+     * @param type   the kind of event.
+     * @param source the Board type code of the object that caused it, or Board.EMPTY.
+     * @param amount the damage, score, HP or level the event is about, 0 if not used.
+     */
+    public void publish(EventType type, int source, int amount) {
+        sequence++;
+        GameEvent event = ring[(int) (sequence & mask)];
+        event.set(sequence, type, source, amount);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.onEvent(event);
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last published event, 0 if there was none.
+     *
+     * @return the last sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns a recent event by its sequence number.
+     *
+     * @param sequence the sequence number of the event.
+     * @return the event, or null if it was never published or has been overwritten.
+     */
+    public GameEvent get(long sequence) {
+        if (sequence <= 0 || sequence > this.sequence || this.sequence - sequence >= ring.length) {
+            return null;
+        }
+        return ring[(int) (sequence & mask)];
+    }
+}
@@ -0,0 +1,32 @@
+package dungeon.engine;
+
+/**
+ * The kinds of event a GameEngine publishes.
+ * The source and amount of a {@link GameEvent} depend on its type, see each constant.
+ */
+public enum EventType {
+    /** The player tried to move off the board. */
+    BLOCKED,
+    /** The player stepped back onto the entrance. */
+    ENTRANCE,
+    /** The player took damage. Source: TRAP, MELEE_MUTANT or RANGED_MUTANT. Amount: damage taken. */
+    DAMAGE,
+    /** A ranged mutant attacked and missed. Source: RANGED_MUTANT. */
+    MISS,
+    /** The player picked something up. Source: GOLD (amount: score) or HEALTH_POTION (amount: HP healed). */
+    PICKUP,
+    /** The player killed a mutant. Source: MELEE_MUTANT or RANGED_MUTANT. Amount: score received. */
+    KILL,
+    /** The player climbed a ladder. Amount: the new level. */
+    LEVEL_CHANGE,
+    /** The player escaped the last level. */
+    ESCAPED,
+    /** The player's HP dropped to 0. */
+    DIED,
+    /** The player used up all of their steps. */
+    OUT_OF_STEPS,
+    /** The game ended. Amount: the final score. */
+    FINAL_SCORE,
+    /** A saved game could not be loaded. */
+    LOAD_FAILED
+}
@@ -1,19 +1,18 @@
 package dungeon.engine;
 
 import dungeon.engine.gameobjects.*;
-import dungeon.gui.GameController;
-import javafx.scene.image.Image;
 
-import java.awt.Point;
+import dungeon.engine.LevelGenerator.GeneratedLevel;
+
 import java.io.*;
-import java.util.*;
-import java.util.function.Supplier;
-import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * GameEngine class represents the core logic of the dungeon game.
  * It manages the game state, player actions, and interactions with game objects.
- * The game can run in either console mode or GUI mode.
+ * The engine is a pure model: it never prints or draws anything itself, instead it reports
+ * events to a {@link GameListener}. The console and GUI front ends are listeners,
+ * and a headless engine (no listener) can be used for simulations.
  */
 public class GameEngine {
 
@@ -29,12 +28,16 @@ public class GameEngine {
     public static final String GREEN = "\u001B[32m";
     public static final String BLUE = "\u001B[34m";
 
-    private static final int SIZE = 10; // Default size of the game board
-    public static boolean GUI; // true = GUI, false = console
+    public static final int FLOOR_TILES = 4; // Number of floor tile variants a cell can use
+    public static final int DEFAULT_LEVELS = 2; // Number of levels in a dungeon unless chosen otherwise
+    public static final long DEFAULT_LEVEL_BUDGET = 16L << 20; // Bytes of left levels to keep in memory
+    public static final int PREFETCH_MIN_CELLS = 50 * 50; // Smaller levels generate faster than a thread hand-off
 
     private int level = 1; // Current level of the game, starts at 1
-    private final int maxLevel = 2; // Maximum level, currently only 2 levels are supported
-    private final Cell[][][] maps = new Cell[maxLevel][][]; // Array to hold maps for each level
+    private int maxLevel; // Number of levels, escaping the last one wins the game
+    private Board board; // Packed board of the current level, the next one is only generated when reached
+    private final LevelStore leftLevels = new LevelStore(DEFAULT_LEVEL_BUDGET); // Boards of the levels the player left
+    private CompletableFuture<GeneratedLevel> nextLevelBoard; // The next level, generated in the background, or null
 
     private int currSteps = 0; // Current number of steps taken by the player
     private final int maxSteps = 100; // Maximum number of steps allowed in the game, can be adjusted for difficulty
@@ -42,81 +45,106 @@ public class GameEngine {
     private final int playerMaxHP = 10; // Maximum HP for the player
     private int score = 0; // Current score of the player, starts at 0
     private int difficulty = 3; // Difficulty level of the game, can be adjusted between 0 and 10 (default 3)
+    private int startDifficulty; // Difficulty the game was started with, before each level raised it
+    private final DifficultyTable difficultyTable; // Objects of a level at each difficulty
     private boolean gameOver = false; // Flag to indicate if the game is over
+    private boolean recorded = false; // The end of the game went to a journal or leaderboard, so it can't be undone
 
     private final Player player; // The player object representing the player in the game
-    private GameController gameController; // The GameController for GUI mode, can be null for console mode
-    private int eventOrder = 0; // Used to order events in the event log
-    private final Scanner scanner = new Scanner(System.in); // Scanner for console input
+    private GameListener listener; // Receives events from the engine, GameListener.NONE when headless
+    private final EventBus events = new EventBus(); // Publishes game events to the listener and other subscribers
+    private long seed; // Seed of this game, every level and combat roll derives from it
+    private final Rng rng; // Random numbers for combat, seeded from the game seed
+    private MoveJournal journal; // Records every move for autosave, null if the game isn't journaled
+    private Leaderboard leaderboard; // Receives the final score, null if scores aren't recorded
+    private PathFinder pathFinder; // Created on first use, keeps its buffers between searches
 
     /**
-     * Creates a square game board with a default size of 10x10 and no GameController.
-     * This constructor is used for console mode.
+     * Creates a headless square game board with no listener.
+     * Nothing is printed or drawn, which makes this constructor suitable for tests and simulations.
      */
     public GameEngine (int size, int difficulty) {
         this(size, difficulty, null);
     }
 
     /**
-     * Creates a square game board with a specified size and an optional GameController.
-     * If a GameController is provided, the game will run in GUI mode; otherwise, it will run in console mode.
+     * Creates a square game board with a specified size, an optional listener and a random seed.
+     * The listener is told about events, board changes and the end of the game;
+     * the console and GUI front ends both implement {@link GameListener}.
      *
-     * @param size           the width and height of the game board.
-     * @param difficulty     the difficulty level of the game, capped between 0 and 10.
-     * @param gameController the GameController for GUI mode, or null for console mode.
+     * @param size       the width and height of the game board.
+     * @param difficulty the difficulty level of the game, capped between 0 and 10.
+     * @param listener   the listener to notify, or null to run headless.
      */
-    public GameEngine(int size, int difficulty, GameController gameController) {
-        if (gameController != null) {
-            this.gameController = gameController;
-            GUI = true; // If a GameController is provided, we are in GUI mode
-        } else {
-            GUI = false; // If no GameController is provided, we are in console mode
-        }
-
-        setDifficulty(difficulty);
-
-        for (int i = 0; i < maps.length; i++) {
-            maps[i] = new Cell[size][size];
-        }
-
-        for (int k = 0; k < maps.length; k++) {
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    maps[k][i][j] = new Cell();
-                }
-            }
-        }
-
-        player = new Player(getSize() - 1, 0);
-        playerHP = playerMaxHP;
-
-        generateMap();
+    public GameEngine(int size, int difficulty, GameListener listener) {
+        this(size, difficulty, listener, Rng.randomSeed());
+    }
 
-        if (!GUI)
-            printMap();
+    /**
+     * Creates a square game board whose dungeon and combat rolls are fully determined by a seed.
+     * Two engines with the same size, difficulty and seed given the same moves play out identically.
+     *
+     * @param size       the width and height of the game board.
+     * @param difficulty the difficulty level of the game, capped between 0 and 10.
+     * @param listener   the listener to notify, or null to run headless.
+     * @param seed       the seed for map generation and combat.
+     */
+    public GameEngine(int size, int difficulty, GameListener listener, long seed) {
+        this(size, difficulty, listener, seed, DEFAULT_LEVELS);
     }
 
     /**
-     * Runs the console loop for the game.
-     * This method continuously prompts the player for input and processes their moves.
-     * It displays the current steps, player HP, and score after each move.
+     * Creates a square game board with a chosen number of levels, fully determined by a seed.
+     * Only the first level is generated now, each following level when the player reaches it.
+     * The levels are the {@link DifficultyTable#LINEAR} ones, whatever table was calibrated.
+     *
+     * @param size       the width and height of the game board.
+     * @param difficulty the difficulty level of the game, capped between 0 and 10.
+     * @param listener   the listener to notify, or null to run headless.
+     * @param seed       the seed for map generation and combat.
+     * @param levels     the number of levels, at least 1.
+     * @throws IllegalArgumentException if there are no levels.
      */
-    public void runConsoleLoop() {
-        while (!isGameOver()) {
-            System.out.println("Current Steps: " + currSteps + "/" + maxSteps);
-            System.out.println("Player HP: " + playerHP + "/" + playerMaxHP);
-            System.out.println("Score: " + score);
-            System.out.print("Move (u/d/l/r): ");
-            String input = scanner.nextLine().trim().toLowerCase();
+    public GameEngine(int size, int difficulty, GameListener listener, long seed, int levels) {
+        this(size, difficulty, listener, seed, levels, DifficultyTable.LINEAR);
+    }
 
-            switch (input) {
-                case "u": movePlayer(true, true); break;
-                case "d": movePlayer(true, false); break;
-                case "r": movePlayer(false, true); break;
-                case "l": movePlayer(false, false); break;
-                default: System.err.println("Invalid input!");
-            }
+    /**
+     * Creates a square game board with a chosen number of levels and difficulty table, fully determined by a seed.
+     * The table sets how many of each object a level has at each difficulty, e.g. while calibrating a new table.
+     *
+     * @param size            the width and height of the game board.
+     * @param difficulty      the difficulty level of the game, capped between 0 and 10.
+     * @param listener        the listener to notify, or null to run headless.
+     * @param seed            the seed for map generation and combat.
+     * @param levels          the number of levels, at least 1.
+     * @param difficultyTable the objects of a level at each difficulty.
+     * @throws IllegalArgumentException if there are no levels.
+     */
+    public GameEngine(int size, int difficulty, GameListener listener, long seed, int levels,
+                      DifficultyTable difficultyTable) {
+        if (levels < 1) {
+            throw new IllegalArgumentException("A dungeon needs at least one level");
         }
+        this.maxLevel = levels;
+        this.difficultyTable = difficultyTable;
+        this.listener = (listener != null) ? listener : GameListener.NONE;
+        this.seed = seed;
+        this.rng = new Rng(Rng.mix64(seed));
+        if (listener != null) {
+            events.subscribe(listener);
+        }
+
+        setDifficulty(difficulty);
+        startDifficulty = getDifficulty();
+
+        player = new Player(size - 1, 0);
+        playerHP = playerMaxHP;
+
+        GeneratedLevel first = LevelGenerator.generate(size, level, difficultyTable.get(getDifficulty()),
+                player.getRow(), player.getCol(), seed);
+        board = first.board();
+        prefetchNextLevel(first.ladderRow(), first.ladderCol());
     }
 
     /**
@@ -128,44 +156,44 @@ public class GameEngine {
      * @param upRight  true if moving up or right, false for down or left
      */
     public void movePlayer(boolean vertical, boolean upRight) {
+        if (journal != null) {
+            journal.record(Direction.of(vertical, upRight));
+        }
+
         int currentRow = player.getRow();
         int currentCol = player.getCol();
         int newRow = vertical ? (upRight ? currentRow - 1 : currentRow + 1) : currentRow;
         int newCol = !vertical ? (upRight ? currentCol + 1 : currentCol - 1) : currentCol;
-        Cell currentCell = getMap()[currentRow][currentCol];
-        Cell newCell;
+        Board board = getBoard();
 
         if (isValidMove(newRow, newCol)) {
-            newCell = getMap()[newRow][newCol];
-            GameObject steppedOnObject = newCell.getGameObject();
+            int steppedOn = board.getObject(newRow, newCol);
+            int current = board.getObject(currentRow, currentCol);
 
-            if (!(currentCell.getGameObject() instanceof Entrance) && !(currentCell.getGameObject() instanceof Trap)) {
+            if (current != Board.ENTRANCE && current != Board.TRAP) {
                 //Delete the current cell's game object unless it's the entrance or a trap
-                currentCell.setGameObject(null);
+                board.setObject(currentRow, currentCol, Board.EMPTY);
+                listener.onCellChanged(this, currentRow, currentCol);
             }
 
             player.moveTo(newRow, newCol);
+            listener.onPlayerMoved(this, currentRow, currentCol);
 
-            if (!(steppedOnObject instanceof Ladder) && !GUI) {
-                // If the player is on the ladder, don't print the map as it will still show the first level
-                System.out.println("--------------------------------------");
-                printMap();
+            if (steppedOn != Board.LADDER) {
+                // If the player is on the ladder, don't report the board as it will still show the first level
+                listener.onBoardChanged(this);
             }
 
-            if (steppedOnObject != null) {
+            if (steppedOn != Board.EMPTY) {
                 // If there's a game object in the new cell, call its onPlayerEnter method
-                steppedOnObject.onPlayerEnter(this);
+                Board.objectOf(steppedOn).onPlayerEnter(this);
             }
 
             checkMutantAttacks();
             addStep();
         } else {
-            if (!GUI) {
-                System.out.println("--------------------------------------");
-                printMap();
-            }
-
-            printEvent("Can't move there!", RED);
+            listener.onBoardChanged(this);
+            publish(EventType.BLOCKED, Board.EMPTY, 0);
         }
     }
 
@@ -177,7 +205,7 @@ public class GameEngine {
      * @return true if the move is valid, false otherwise.
      */
     private boolean isValidMove(int row, int col) {
-        return row >= 0 && row < getMap().length && col >= 0 && col < getMap()[0].length;
+        return row >= 0 && row < getSize() && col >= 0 && col < getSize();
     }
 
     /**
@@ -190,16 +218,32 @@ public class GameEngine {
     }
 
     /**
-     * Checks if there are any ranged mutants on the map and attempts to attack the player.
+     * Lets every ranged mutant within range of the player attempt to attack.
      * This method is called after every player move to ensure that mutants can attack the player.
-     */
-    private void checkMutantAttacks() {
-        if (!isGameOver()){
-            for (int row = 0; row < getMap().length; row++) {
-                for (int col = 0; col < getMap().length; col++) {
-                    GameObject obj = getMap()[row][col].getGameObject();
-                    if (obj instanceof RangedMutant) {
-                        ((RangedMutant) obj).tryAttackPlayer(this, row, col);
+     * Only the cells within {@link RangedMutant#ATTACK_RANGE} of the player's row and column are
+     * checked (in row by row order), and not at all if the board has no ranged mutant in either.
+     */
+    void checkMutantAttacks() {
+        if (isGameOver()) return;
+
+        Board board = getBoard();
+        int playerRow = player.getRow();
+        int playerCol = player.getCol();
+        boolean inRow = board.getRangedInRow(playerRow) > 0;
+        boolean inCol = board.getRangedInCol(playerCol) > 0;
+        if (!inRow && !inCol) return;
+
+        RangedMutant mutant = (RangedMutant) Board.objectOf(Board.RANGED_MUTANT);
+        int range = RangedMutant.ATTACK_RANGE;
+        for (int row = Math.max(0, playerRow - range); row <= Math.min(board.getSize() - 1, playerRow + range); row++) {
+            if (row != playerRow) {
+                if (inCol && board.getObject(row, playerCol) == Board.RANGED_MUTANT) {
+                    mutant.tryAttackPlayer(this, row, playerCol);
+                }
+            } else if (inRow) {
+                for (int col = Math.max(0, playerCol - range); col <= Math.min(board.getSize() - 1, playerCol + range); col++) {
+                    if (col != playerCol && board.getObject(row, col) == Board.RANGED_MUTANT) {
+                        mutant.tryAttackPlayer(this, row, col);
                     }
                 }
             }
@@ -214,31 +258,66 @@ public class GameEngine {
      */
     public int getSize() {
         // The size of the map is the same for both levels but for future expansion we check the current level.
-        return getMap().length;
+        return getBoard().getSize();
     }
 
     /**
-     * Returns the map of the current level of the game.
+     * Returns the packed board of the current level of the game.
+     * This is what the engine and the front ends read and write.
      *
-     * @return the current level map.
+     * @return the current level board.
      */
-    public Cell[][] getMap() {
-        return maps[getLevel() - 1];
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the board of a level the player has reached, reading it back from disk if it was paged out.
+     * The levels the player left are dropped when the game is over, if its end was journaled or recorded.
+     *
+     * @param level the level, starting at 1.
+     * @return the board, or null if the player hasn't reached the level, or left it and the levels were dropped.
+     */
+    public Board getBoard(int level) {
+        return (level == getLevel()) ? board : leftLevels.get(level);
+    }
+
+    /**
+     * Returns the number of levels in the dungeon.
+     *
+     * @return the number of levels.
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * Sets how much memory the boards of the levels the player has left may use.
+     * The least recently used boards beyond the budget are paged out to a temporary file.
+     *
+     * @param bytes the budget in bytes, 0 to page out every level as soon as the player leaves it.
+     */
+    public void setLevelBudget(long bytes) {
+        leftLevels.setBudget(bytes);
     }
 
     /**
-     * Resets the current map to a new empty map.
-     * This method is called when the player loads a game from a lower level.
-     * It clears the current map and initializes it with new empty cells.
+     * Returns a copy of the current level as a grid of cells.
+     * The cells are detached from the game, changing them does not change the board.
+     *
+     * @return a new grid of cells for the current level.
      */
-    private void resetCurrMap() {
-        // Reset the current map to a new empty map
-        maps[getLevel() - 1] = new Cell[getSize()][getSize()];
-        for (int i = 0; i < getSize(); i++) {
-            for (int j = 0; j < getSize(); j++) {
-                maps[getLevel() - 1][i][j] = new Cell();
+    public Cell[][] getMap() {
+        Board board = getBoard();
+        Cell[][] map = new Cell[board.getSize()][board.getSize()];
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int col = 0; col < board.getSize(); col++) {
+                map[row][col] = new Cell();
+                map[row][col].setGameObject(board.getGameObject(row, col));
+                map[row][col].setFloorTile(board.getFloorTile(row, col));
             }
         }
+        return map;
     }
 
     /**
@@ -299,15 +378,9 @@ public class GameEngine {
         if (this.playerHP <= 0 && !isGameOver()) {
             this.playerHP = 0; // Prevent negative HP
 
-            if(!GUI)
-                System.out.print(BOLD);
-            else
-                gameController.endGame("You died!\n Game over.", "red");
-
-            System.out.println();
-            printEvent("You died! Game over.", RED);
+            publish(EventType.DIED, Board.EMPTY, 0);
             setScore(-1);
-            gameOver();
+            gameOver("You died!\n Game over.", false);
         } else if (this.playerHP > playerMaxHP) {
             this.playerHP = playerMaxHP; // Cap HP to a maximum value
         }
@@ -342,21 +415,33 @@ public class GameEngine {
         return difficulty;
     }
 
+    /**
+     * Returns the difficulty the game was started with.
+     * Each level raises the current difficulty, this stays the same.
+     *
+     * @return the starting difficulty, between 0 and 10.
+     */
+    public int getStartDifficulty() {
+        return startDifficulty;
+    }
+
+    /**
+     * Returns the table that sets how many of each object a level has at each difficulty.
+     *
+     * @return the difficulty table.
+     */
+    public DifficultyTable getDifficultyTable() {
+        return difficultyTable;
+    }
+
     /**
      * Sets the difficulty of the game.
-     * The difficulty is capped between 0 and 10.
+     * The difficulty is silently capped between 0 and 10.
      *
      * @param difficulty the new difficulty level.
      */
     public void setDifficulty(int difficulty) {
-        this.difficulty = difficulty;
-        if (this.difficulty < 0) {
-            this.difficulty = 0; // Prevent negative difficulty
-            System.out.println("Difficulty capped at 0.");
-        } else if (this.difficulty > 10) {
-            this.difficulty = 10; // Cap difficulty to a maximum value
-            System.out.println("Difficulty capped at 10.");
-        }
+        this.difficulty = Math.max(0, Math.min(10, difficulty));
     }
 
     /**
@@ -370,46 +455,41 @@ public class GameEngine {
 
     /**
      * Increases the number of steps taken by the player.
-     * If the maximum number of steps is reached, it ends the game.
+     * If the maximum number of steps is reached, it ends the game, unless the step already ended it.
      */
     private void addStep() {
         currSteps++;
-        if (currSteps >= maxSteps) {
-            if(!GUI)
-                System.out.print(BOLD);
-            else
-                gameController.endGame("You ran out of steps!\n Game over.", "red");
-
-            System.out.println();
-            printEvent("You have reached the maximum number of steps! Game over.", RED);
+        if (currSteps >= maxSteps && !isGameOver()) { // Escaping or dying on the last step ends the game first
+            publish(EventType.OUT_OF_STEPS, Board.EMPTY, 0);
             setScore(-1); // Game over, no score
-            gameOver();
+            gameOver("You ran out of steps!\n Game over.", false);
         }
     }
 
     /**
      * Moves the player to the next level if they are on a ladder.
      * If the player is on the last level, it prints a victory message.
+     * The next level is usually generated in the background already, so this only swaps the boards.
      */
     public void nextLevel() {
         if (getLevel() == maxLevel) {
-            if (!GUI)
-                System.out.print(BOLD);
-            else
-                gameController.endGame("You escaped!\n Final score: " + getScore(), "green");
-
-            System.out.println();
-            printEvent("You have escaped the dungeon!", CYAN);
-            gameOver();
+            publish(EventType.ESCAPED, Board.EMPTY, 0);
+            gameOver("You escaped!\n Final score: " + getScore(), true);
         } else {
-            printEvent("You climbed the ladder to the next level!", GameEngine.BLUE);
+            publish(EventType.LEVEL_CHANGE, Board.EMPTY, getLevel() + 1);
+            GeneratedLevel next = (nextLevelBoard != null)
+                    ? nextLevelBoard.join() // Waits only if the player reached the ladder before it was ready
+                    : LevelGenerator.generate(getSize(), level + 1, difficultyTable.get(nextDifficulty()),
+                            player.getRow(), player.getCol(), seed);
+            nextLevelBoard = null;
+
+            leftLevels.put(level, board);
+            board = next.board();
             level++;
             setDifficulty(getDifficulty() + 2);
-            generateMap();
-            if (!GUI) {
-                System.out.println("--------------------------------------");
-                printMap();
-            }
+            prefetchNextLevel(next.ladderRow(), next.ladderCol());
+            listener.onLevelChanged(this);
+            listener.onBoardChanged(this);
         }
     }
 
@@ -423,285 +503,284 @@ public class GameEngine {
     }
 
     /**
-     * Sets the game over state to true and prints the final score.
-     * If GUI is true, it adds the score to the leaderboard file.
-     */
-    public void gameOver() {
-        this.gameOver = true;
-        printEvent("Your score was " + getScore() + ".", YELLOW);
-        if (GUI)
-            addToFile(getScore() + " " + LocalDate.now());
-    }
-
-    /**
-     * Adds the current score to the leaderboard file.
-     * The score is only added if it is non-negative.
-     * The file is appended with the new score and the current date.
+     * Sets the game over state to true, reports the final score and notifies the listener.
+     * A game that is journaled or recorded on a leaderboard is over for good: its journal and the levels the
+     * player left are dropped. Other games keep everything, so they can still be restored from a snapshot.
      *
-     * @param content The content to be added to the file, typically the score and date.
+     * @param message the end of game message for the listener to display.
+     * @param won     true if the player escaped the dungeon, false if they died or ran out of steps.
      */
-    private void addToFile(String content) {
-        // If the score is higher than the 5th highest score, add it to the file
-        if (getScore() < 0) return; // Don't write negative scores
-
-        // Append the score to the file
-        try (FileWriter writer = new FileWriter("ict221-mini-dungeon-usc-TP111/src/main/resources/data/scores.txt", true)) {
-            writer.write(content + "\n");
-        } catch (IOException e) {
-            System.err.println("Error writing to file: " + e.getMessage());
+    private void gameOver(String message, boolean won) {
+        this.gameOver = true;
+        nextLevelBoard = null; // Never needed
+        recorded = journal != null || leaderboard != null;
+        if (recorded) {
+            leftLevels.close(); // Deletes the page file, if levels were paged out
         }
+        if (journal != null) {
+            // Nothing left to recover
+            journal.discard();
+            journal = null;
+        }
+        publish(EventType.FINAL_SCORE, Board.EMPTY, getScore());
+        if (leaderboard != null) {
+            int levelsCleared = won ? getLevel() : getLevel() - 1;
+            leaderboard.submit(ScoreEntry.of(getScore(), startDifficulty, levelsCleared, getCurrSteps(), System.currentTimeMillis()));
+        }
+        listener.onGameOver(this, message, won);
     }
 
     /**
-     * Saves the current game state to a file.
-     * The file will contain the level, player position, steps, HP, score, difficulty, and map state.
+     * Saves the current game state to the save file.
+     * The file will contain the level, player position, steps, HP, score, difficulty, seed and map state.
      */
     public void saveGame () {
-        // Save the current game state to a file
-        File file = new File("ict221-mini-dungeon-usc-TP111/src/main/resources/data/savegame.txt");
-        file.getParentFile().mkdirs();
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write("\n"); // The first line is empty since the first line is used to check if the file is empty
-            writer.write("Level: " + level + "\n");
-            writer.write("PlayerPos: " + player.getRow() + "," + player.getCol() + "\n");
-            writer.write("Steps: " + getCurrSteps() + "\n");
-            writer.write("HP: " + getPlayerHP() + "\n");
-            writer.write("Score: " + getScore() + "\n");
-            writer.write("Difficulty: " + getDifficulty() + "\n");
-            // Save map
-            for (int y = 0; y < getSize(); y++) {
-                for (int x = 0; x < getSize(); x++) {
-                    Cell cell = getMap()[y][x];
-                    GameObject go = cell.getGameObject();
-                    String objectInfo = (go != null) ? go.getClass().getSimpleName() : "None";
-                    writer.write("Cell (" + y + "," + x + "): " + objectInfo + "\n");
-                }
-            }
+        try {
+            SaveFile.write(createSave(), SaveFile.DEFAULT_PATH);
         } catch (IOException e) {
             System.err.println("Error saving game: " + e.getMessage());
         }
     }
 
     /**
-     * Loads the game state from a file.
-     * The file should contain the level, player position, steps, HP, score, difficulty, and map state.
+     * Loads the game state from the save file.
+     * If there is no binary save file, a save file in the old text format is loaded instead.
      */
     public void loadGame () {
-        // Load the game state from a file
-        try (BufferedReader reader = new BufferedReader(new FileReader("ict221-mini-dungeon-usc-TP111/src/main/resources/data/savegame.txt"))) {
-            String line;
-
-            // Check if the file is empty
-            if(reader.readLine() == null) {
-                printEvent("Save file is empty. Cannot load game.", RED);
+        try {
+            SaveState save = SaveFile.read(SaveFile.findSaveFile());
+            if (save == null) {
+                publish(EventType.LOAD_FAILED, Board.EMPTY, 0);
                 return;
             }
-
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(" ");
-                if (parts[0] == null) {
-                    System.err.println("Invalid line in save file: " + line);
-                    continue; // Skip empty lines or malformed lines
-                }
-                switch (parts[0]) {
-                    case "Level:":
-                        if(Integer.parseInt(parts[1].trim() ) < getLevel()) {
-                            resetCurrMap(); // Reset the map if loading a lower level
-                        }
-                        level = Integer.parseInt(parts[1].trim());
-                        break;
-                    case "PlayerPos:":
-                        String[] pos = parts[1].trim().split(",");
-                        player.moveTo(Integer.parseInt(pos[0]), Integer.parseInt(pos[1]));
-                        break;
-                    case "Steps:":
-                        setCurrSteps(Integer.parseInt(parts[1].trim()));
-                        break;
-                    case "HP:":
-                        setPlayerHP(Integer.parseInt(parts[1].trim()));
-                        break;
-                    case "Score:":
-                        setScore(Integer.parseInt(parts[1].trim()));
-                        break;
-                    case "Difficulty:":
-                        setDifficulty(Integer.parseInt(parts[1].trim()));
-                        break;
-                    case "Cell":
-                        // This case handles the loading of game objects in cells
-                        if (parts.length < 3) {
-                            System.err.println("Invalid cell format in save file: " + line);
-                            continue;
-                        }
-                        // Example: Cell (0,0): Entrance
-                        // We expect parts[1] to be "Cell" and parts[2] to be "(x,y): ObjectType"
-                        // So we need to parse the cell coordinates and the object type
-                        String[] cellCoords = parts[1].trim().replace("(", "").replace("):", "").split(",");
-                        int row = Integer.parseInt(cellCoords[0]);
-                        int col = Integer.parseInt(cellCoords[1]);
-                        String objectType = parts[2].trim();
-
-                        // Clear the cell before setting the new object
-                        getMap()[row][col].setGameObject(null);
-
-                        // Set the game object based on the type
-                        switch (objectType) {
-                            case "None":
-                                getMap()[row][col].setGameObject(null);
-                                break;
-                            case "Entrance":
-                                getMap()[row][col].setGameObject(new Entrance());
-                                break;
-                            case "Ladder":
-                                getMap()[row][col].setGameObject(new Ladder());
-                                break;
-                            case "Trap":
-                                getMap()[row][col].setGameObject(new Trap());
-                                break;
-                            case "Gold":
-                                getMap()[row][col].setGameObject(new Gold());
-                                break;
-                            case "MeleeMutant":
-                                getMap()[row][col].setGameObject(new MeleeMutant());
-                                break;
-                            case "RangedMutant":
-                                getMap()[row][col].setGameObject(new RangedMutant());
-                                break;
-                            case "HealthPotion":
-                                getMap()[row][col].setGameObject(new HealthPotion());
-                                break;
-                            default:
-                                System.err.println("Unknown game object in save file: " + line);
-                        }
-                        break;
-                    default:
-                        System.err.println("Unknown line in save file: " + line);
-                }
-            }
-        } catch (IOException e) {
+            applySave(save);
+        } catch (IOException | RuntimeException e) {
             System.err.println("Error loading save file: " + e.getMessage());
         }
     }
 
     /**
-     * Prints an event to the console or GUI event log.
-     * If GUI is true, it appends the event to the event log with an order number.
-     * If GUI is false, it prints the event to the console with a specified color.
+     * Takes a snapshot of the current game for saving.
      *
-     * @param event The event message to print.
-     * @param COLOR The color code for console output (if GUI is false).
+     * @return the snapshot, which doesn't change when the game goes on.
      */
-    public void printEvent (String event, String COLOR) {
-        if (GUI) {
-            eventOrder++;
-            gameController.getEventLog().setText(eventOrder + ". " + event + "\n" + gameController.getEventLog().getText());
-        } else {
-            System.out.println("> " + COLOR + event + RESET + " <");
-        }
+    public SaveState createSave() {
+        return new SaveState(level, player.getRow(), player.getCol(), getCurrSteps(), getPlayerHP(), getScore(),
+                getDifficulty(), getStartDifficulty(), getSeed(), rng.getState(), getSize(), getMaxLevel(), getBoard().toBytes());
     }
 
     /**
-     * Generates the game map with various game objects.
-     * The entrance is placed at the player's position, and other objects are randomly placed in free cells.
+     * Restores a saved game, replacing the current level with the saved one.
+     *
+     * @param save the saved game.
+     * @throws IllegalArgumentException if the save doesn't fit this engine's board.
      */
-    private void generateMap() {
-        ArrayList<GameObject> gameObjects = new ArrayList<>();
+    public void applySave(SaveState save) {
+        if (save.levels() < 1 || save.level() < 1 || save.level() > save.levels() || save.size() != getSize()) {
+            throw new IllegalArgumentException("Saved game doesn't match this dungeon");
+        }
+        maxLevel = save.levels();
+        level = save.level();
+        board = Board.fromBytes(save.size(), save.cells());
+        leftLevels.clear(); // The levels before the saved one are not part of the save
+        player.moveTo(save.playerRow(), save.playerCol());
+        setCurrSteps(save.steps());
+        setPlayerHP(save.hp());
+        setScore(save.score());
+        setDifficulty(save.difficulty());
+        startDifficulty = save.startDifficulty();
+        seed = save.seed();
+        rng.setState(save.rngState());
+        prefetchNextLevel(); // The level after the saved one
+        if (journal != null) {
+            journal.compact(); // The journaled moves led to the game that was just replaced
+        }
+        listener.onLevelChanged(this);
+    }
 
-        // Generate the entrance based on the player's position (bottom left by default, variable on second level)
-        getMap()[player.getRow()][player.getCol()].setGameObject(new Entrance());
+    /**
+     * Takes a snapshot of the current game in constant time, e.g. for undo or to look ahead.
+     * The board is shared with the game until either changes it, see {@link Board#copy()}.
+     *
+     * @return the snapshot, which doesn't change when the game goes on.
+     */
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(board.copy(), level, maxLevel, player.getRow(), player.getCol(), currSteps, playerHP,
+                score, difficulty, gameOver, seed, rng.getState());
+    }
 
-        // Add objects
-        addMultiple(gameObjects, Ladder::new, 1);
-        addMultiple(gameObjects, Trap::new, 5);
-        addMultiple(gameObjects, Gold::new, 5);
-        addMultiple(gameObjects, MeleeMutant::new, 3);
-        addMultiple(gameObjects, RangedMutant::new, difficulty);
-        addMultiple(gameObjects, HealthPotion::new, 2);
+    /**
+     * Puts the game back as it was when a snapshot was taken, in constant time unless the snapshot is of
+     * another level or of a game that wasn't over yet, when the next level has to be generated again.
+     * Nothing is published as the game goes back, the listener is only told to redraw the level.
+     * A game that is over can only be restored if its end wasn't journaled or recorded on a leaderboard,
+     * e.g. a headless game a bot looks ahead in.
+     *
+     * @param snapshot a snapshot taken of this game.
+     * @throws IllegalArgumentException if the snapshot is of another game.
+     * @throws IllegalStateException    if the game is over and its end was journaled or recorded.
+     */
+    public void restore(GameSnapshot snapshot) {
+        if (recorded) {
+            throw new IllegalStateException("The game is over and its score was recorded");
+        }
+        if (snapshot.seed != seed || snapshot.maxLevel != maxLevel || snapshot.board.getSize() != getSize()) {
+            throw new IllegalArgumentException("Snapshot isn't of this game");
+        }
+        boolean prefetch = snapshot.level != level || (gameOver && !snapshot.gameOver);
+        level = snapshot.level;
+        board = snapshot.board.copy();
+        player.moveTo(snapshot.playerRow, snapshot.playerCol);
+        currSteps = snapshot.steps;
+        playerHP = snapshot.hp;
+        score = snapshot.score;
+        difficulty = snapshot.difficulty;
+        gameOver = snapshot.gameOver;
+        rng.setState(snapshot.rngState);
+        if (prefetch) {
+            prefetchNextLevel();
+        }
+        if (journal != null) {
+            journal.compact(); // The journaled moves led to the game that was just replaced
+        }
+        listener.onLevelChanged(this);
+    }
 
-        // Shuffle and place at free positions
-        List<Point> freePositions = new ArrayList<>();
-        for (int y = 0; y < getSize(); y++) {
-            for (int x = 0; x < getSize(); x++) {
-                if (getMap()[y][x].getGameObject() == null) {
-                    freePositions.add(new Point(x, y));
-                }
-            }
+    /**
+     * Replaces the listener, e.g. to show a game that was recovered headless.
+     *
+     * @param listener the listener to notify, or null to run headless.
+     */
+    public void setListener(GameListener listener) {
+        if (this.listener != GameListener.NONE) {
+            events.unsubscribe(this.listener);
+        }
+        this.listener = (listener != null) ? listener : GameListener.NONE;
+        if (listener != null) {
+            events.subscribe(listener);
         }
+    }
 
-        Collections.shuffle(freePositions);
+    /**
+     * Sets the leaderboard that the final score is submitted to when the game is over.
+     * Headless engines have none, so simulations and tests don't record scores.
+     *
+     * @param leaderboard the leaderboard, or null to not record the score.
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
 
-        for (GameObject go : gameObjects) {
-            Point p = freePositions.removeFirst();
-            getMap()[p.y][p.x].setGameObject(go);
+    /**
+     * Returns the path finder that searches the current level of this game.
+     * It is only meant to be used on the thread that plays the game.
+     *
+     * @return the path finder.
+     */
+    public PathFinder getPathFinder() {
+        if (pathFinder == null) {
+            pathFinder = new PathFinder(this);
         }
+        return pathFinder;
+    }
 
-        // If GUI is true, set random floor tiles for each cell
-        if (GUI) {
-            Random rand = new Random();
-            for (int y = 0; y < getSize(); y++) {
-                for (int x = 0; x < getSize(); x++) {
-                    Image floorTile = gameController.getFloorTileImages().get(rand.nextInt(gameController.getFloorTileImages().size()));
-                    getMap()[y][x].setFloorTile(floorTile);
-                }
-            }
-        }
+    /**
+     * Returns the journal that records this game's moves.
+     *
+     * @return the journal, or null if the game isn't journaled.
+     */
+    public MoveJournal getJournal() {
+        return journal;
     }
 
     /**
-     * Adds multiple instances of a game object to a list.
+     * Sets the journal that records this game's moves, see {@link MoveJournal#start(GameEngine, java.nio.file.Path)}.
      *
-     * @param list    the list to add the game objects to.
-     * @param supplier a supplier that creates new instances of the game object.
-     * @param count   the number of instances to add.
+     * @param journal the journal, or null to stop journaling.
      */
-    private void addMultiple(ArrayList<GameObject> list, Supplier<GameObject> supplier, int count) {
-        for (int i = 0; i < count; i++) {
-            list.add(supplier.get());
-        }
+    void setJournal(MoveJournal journal) {
+        this.journal = journal;
     }
 
     /**
-     * Prints the current game map to the console.
-     * The player is represented by '@', walls by '#', and empty cells by '.'.
+     * Publishes an event to the listener and any other subscribers of {@link #getEvents()}.
+     * Nothing is formatted or allocated here, subscribers format the event if they need to.
+     *
+     * @param type   the kind of event.
+     * @param source the Board type code of the object that caused it, or Board.EMPTY.
+     * @param amount the damage, score, HP or level the event is about, 0 if not used.
      */
-    private void printMap() {
-        for (int x = -1; x < getSize() + 1; x++) {
-            for (int y = -1; y < getSize() + 1; y++) {
-                if (x < 0 || y < 0 || x == getSize() || y == getSize()) {
-                    // Print borders
-                    System.out.print("#");
-                    continue;
-                }
+    public void publish(EventType type, int source, int amount) {
+        events.publish(type, source, amount);
+    }
 
-                if (x == player.getRow() && y == player.getCol()) {
-                    // If this cell is the player's location, show @ instead of the game object
-                    System.out.print("@");
-                    continue;
-                }
+    /**
+     * Returns the seed of this game.
+     *
+     * @return the seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
 
-                GameObject go = getMap()[x][y].getGameObject();
-                System.out.print(go != null ? go.getSymbol() : ".");
-            }
-            System.out.println();
-        }
+    /**
+     * Returns the random number generator used for combat rolls.
+     *
+     * @return the combat random number generator.
+     */
+    public Rng getRng() {
+        return rng;
+    }
+
+    /**
+     * Returns the event bus of this engine, e.g. to subscribe to events in addition to the listener.
+     *
+     * @return the event bus.
+     */
+    public EventBus getEvents() {
+        return events;
     }
 
     /**
-     * Main method to run the game in console mode.
+     * Returns the difficulty of the next level: each level raises it by 2, up to 10.
+     *
+     * @return the difficulty of the next level.
      */
-    public static void main(String[] args) {
-        System.out.print("Enter difficulty (0-10, default is 3): ");
-        int difficulty = 3;
-        Scanner scanner = new Scanner(System.in);
-        String input = scanner.nextLine().trim();
-        if (!input.isEmpty()) {
-            try {
-                difficulty = Integer.parseInt(input);
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid input, using default difficulty 3.");
+    private int nextDifficulty() {
+        return Math.min(10, getDifficulty() + 2);
+    }
+
+    /**
+     * Starts generating the next level in the background, entered where the ladder is on this level.
+     * Small levels and the last level are not prefetched, the next level is then generated when it is reached.
+     *
+     * @param ladderRow the row of the ladder on the current level.
+     * @param ladderCol the column of the ladder on the current level.
+     */
+    private void prefetchNextLevel(int ladderRow, int ladderCol) {
+        nextLevelBoard = null;
+        int size = getSize();
+        if (getLevel() >= maxLevel || ladderRow < 0 || size * size < PREFETCH_MIN_CELLS) return;
+
+        int next = getLevel() + 1;
+        DifficultyTable.Counts counts = difficultyTable.get(nextDifficulty());
+        long levelSeed = seed;
+        nextLevelBoard = CompletableFuture.supplyAsync(
+                () -> LevelGenerator.generate(size, next, counts, ladderRow, ladderCol, levelSeed));
+    }
+
+    /**
+     * Starts generating the next level in the background after the current level was replaced, e.g. by a save.
+     */
+    private void prefetchNextLevel() {
+        for (int row = 0; row < getSize(); row++) {
+            for (int col = 0; col < getSize(); col++) {
+                if (board.getObject(row, col) == Board.LADDER) {
+                    prefetchNextLevel(row, col);
+                    return;
+                }
             }
         }
-
-        GameEngine engine = new GameEngine(SIZE, difficulty);
-        engine.runConsoleLoop();
+        nextLevelBoard = null; // No ladder, nothing to prefetch
     }
 }
@@ -0,0 +1,92 @@
+package dungeon.engine;
+
+/**
+ * A single event published by a GameEngine.
+ * Events are preallocated slots of an {@link EventBus} ring and are reused once the ring wraps around,
+ * so subscribers must copy what they need instead of keeping the event itself.
+ * Nothing is formatted until a subscriber asks for the message.
+ */
+public class GameEvent {
+
+    private long sequence;
+    private EventType type;
+    private int source;
+    private int amount;
+
+    /**
+     * Fills this slot with a new event.
+     *
+     * @param sequence the sequence number of the event, starting at 1.
+     * @param type     the kind of event.
+     * @param source   the Board type code of the object that caused it, or Board.EMPTY.
+     * @param amount   the damage, score, HP or level the event is about, 0 if not used.
+     */
+    void set(long sequence, EventType type, int source, int amount) {
+        this.sequence = sequence;
+        this.type = type;
+        this.source = source;
+        this.amount = amount;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    /**
+     * Formats the event as a message for the player.
+     *
+     * @return the event message.
+     */
+    public String getMessage() {
+        return switch (type) {
+            case BLOCKED -> "Can't move there!";
+            case ENTRANCE -> "This is the entrance.";
+            case DAMAGE -> switch (source) {
+                case Board.TRAP -> "You stepped on a trap! You take " + amount + " damage.";
+                case Board.MELEE_MUTANT -> "You take " + amount + " damage from a melee mutant.";
+                case Board.RANGED_MUTANT -> "A ranged mutant hits you! You take " + amount + " damage.";
+                default -> "You take " + amount + " damage.";
+            };
+            case MISS -> "A ranged mutant tried to attack you but missed!";
+            case PICKUP -> source == Board.HEALTH_POTION
+                    ? "You picked up a health potion! You heal " + amount + " HP."
+                    : "You picked up a gold coin! You receive " + amount + " score.";
+            case KILL -> "You killed the " + (source == Board.MELEE_MUTANT ? "melee" : "ranged")
+                    + " mutant! You receive " + amount + " score.";
+            case LEVEL_CHANGE -> "You climbed the ladder to the next level!";
+            case ESCAPED -> "You have escaped the dungeon!";
+            case DIED -> "You died! Game over.";
+            case OUT_OF_STEPS -> "You have reached the maximum number of steps! Game over.";
+            case FINAL_SCORE -> "Your score was " + amount + ".";
+            case LOAD_FAILED -> "Save file is empty. Cannot load game.";
+        };
+    }
+
+    /**
+     * Returns the ANSI color code used when the event is printed to the console.
+     *
+     * @return one of the color constants of GameEngine.
+     */
+    public String getColor() {
+        return switch (type) {
+            case BLOCKED, DAMAGE, DIED, OUT_OF_STEPS, LOAD_FAILED -> GameEngine.RED;
+            case ENTRANCE, LEVEL_CHANGE -> GameEngine.BLUE;
+            case MISS, KILL -> GameEngine.GREEN;
+            case PICKUP -> source == Board.HEALTH_POTION ? GameEngine.GREEN : GameEngine.YELLOW;
+            case ESCAPED -> GameEngine.CYAN;
+            case FINAL_SCORE -> GameEngine.YELLOW;
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package dungeon.engine;
+
+/**
+ * Receives notifications from a GameEngine.
+ * The engine never prints or draws anything itself, the console and GUI front ends
+ * implement this interface to present the game instead.
+ * Every method has an empty default so listeners only override what they need.
+ */
+public interface GameListener extends EventBus.Subscriber {
+
+    /**
+     * A listener that ignores everything, used when the engine runs headless.
+     */
+    GameListener NONE = new GameListener() {};
+
+    /**
+     * Called when something happens in the game, e.g. the player picks up gold or takes damage.
+     * The event is reused by the engine, so copy or format it during the call.
+     *
+     * @param event the event.
+     */
+    @Override
+    default void onEvent(GameEvent event) {}
+
+    /**
+     * Called after the board changed and should be shown again,
+     * i.e. after a move, a blocked move or a level change.
+     *
+     * @param engine the engine whose board changed.
+     */
+    default void onBoardChanged(GameEngine engine) {}
+
+    /**
+     * Called when the object in a single cell of the current level changed,
+     * e.g. gold that was picked up or a mutant that was killed.
+     *
+     * @param engine the engine whose board changed.
+     * @param row    the row of the cell.
+     * @param col    the column of the cell.
+     */
+    default void onCellChanged(GameEngine engine, int row, int col) {}
+
+    /**
+     * Called when the player moved to a new cell of the current level.
+     * The new position is the player's current position.
+     *
+     * @param engine  the engine whose player moved.
+     * @param fromRow the row the player left.
+     * @param fromCol the column the player left.
+     */
+    default void onPlayerMoved(GameEngine engine, int fromRow, int fromCol) {}
+
+    /**
+     * Called when the whole current level was replaced, i.e. the player climbed
+     * to a new level or a saved game was loaded. Everything should be redrawn.
+     *
+     * @param engine the engine whose level changed.
+     */
+    default void onLevelChanged(GameEngine engine) {}
+
+    /**
+     * Called once when the game ends.
+     *
+     * @param engine  the engine whose game ended.
+     * @param message the end of game message to display.
+     * @param won     true if the player escaped the dungeon, false otherwise.
+     */
+    default void onGameOver(GameEngine engine, String message, boolean won) {}
+}
@@ -0,0 +1,84 @@
+package dungeon.engine;
+
+/**
+ * The state of a game at one moment, taken by {@link GameEngine#snapshot()} and put back by
+ * {@link GameEngine#restore(GameSnapshot)}, e.g. to undo moves or to try out moves ahead.
+ * A snapshot shares the board with the game, so taking and restoring one copies nothing;
+ * a move afterwards only copies the part of the board it changes. A snapshot never changes.
+ */
+public final class GameSnapshot {
+
+    final Board board; // Never changed, the engine restores a copy
+    final int level;
+    final int maxLevel;
+    final int playerRow;
+    final int playerCol;
+    final int steps;
+    final int hp;
+    final int score;
+    final int difficulty;
+    final boolean gameOver;
+    final long seed;
+    final long rngState;
+
+    GameSnapshot(Board board, int level, int maxLevel, int playerRow, int playerCol, int steps, int hp, int score,
+                 int difficulty, boolean gameOver, long seed, long rngState) {
+        this.board = board;
+        this.level = level;
+        this.maxLevel = maxLevel;
+        this.playerRow = playerRow;
+        this.playerCol = playerCol;
+        this.steps = steps;
+        this.hp = hp;
+        this.score = score;
+        this.difficulty = difficulty;
+        this.gameOver = gameOver;
+        this.seed = seed;
+        this.rngState = rngState;
+    }
+
+    /**
+     * Returns the level the player was on.
+     *
+     * @return the level, starting at 1.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the number of steps the player had taken.
+     *
+     * @return the number of steps.
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the player's HP.
+     *
+     * @return the HP.
+     */
+    public int getPlayerHP() {
+        return hp;
+    }
+
+    /**
+     * Returns the score.
+     *
+     * @return the score, -1 if the game was lost.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns whether the game was over.
+     *
+     * @return true if the game was over.
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
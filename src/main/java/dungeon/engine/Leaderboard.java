@@ -0,0 +1,790 @@
+package dungeon.engine;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stores the scores of finished games and answers leaderboard queries without reading every score.
+ * Every score is appended to a log file, one line per game: the score and date as before, followed
+ * by the difficulty, levels cleared, steps used and the time the game ended.
+ * Two files are kept next to the log and updated as scores are added:
+ * <ul>
+ *     <li>an index (scores.idx) with the best scores overall and for each difficulty, a count of
+ *     the games for every score, and how much of the log it covers;</li>
+ *     <li>the records (scores.rec), every game as a fixed size record in the order the games were
+ *     logged, so a date range is found by binary search and only the games in it are read.</li>
+ * </ul>
+ * Games can be logged out of the order they ended, e.g. by games on other threads or processes or after the
+ * clock was set back, so a game is stamped no earlier than the last one logged and the records stay in time order.
+ * Opening the leaderboard reads the index and only the part of the log written since, so it doesn't
+ * get slower as more games are recorded. Both files are rebuilt from the log if they are missing.
+ * Any number of games can submit scores at once without waiting: scores are queued and a
+ * background thread writes everything queued so far in one batch. Each batch is written while
+ * holding a lock on the log, after first catching up with any scores other processes appended to it,
+ * so games in several processes can share one scores file without losing or mixing up lines.
+ * The default leaderboard is loaded on the background thread and watches the scores file, so it
+ * picks up games other processes record, reading only the lines they appended. Queries never wait
+ * for the disk: they answer from the last loaded copy, and listeners are told when it changes.
+ */
+public class Leaderboard {
+
+    public static final Path DEFAULT_PATH = Path.of("ict221-mini-dungeon-usc-TP111/src/main/resources/data/scores.txt");
+    public static final int DEFAULT_CAPACITY = 10; // Scores kept in the index, overall and per difficulty
+    public static final int DIFFICULTIES = 11; // Difficulties 0 to 10
+
+    private static final int MAGIC = 0x4D44544B; // "MDTK"
+    private static final short VERSION = 2;
+
+    private static final int RECORDS_MAGIC = 0x4D445352; // "MDSR"
+    private static final int RECORDS_HEADER = 8; // magic, version and two unused bytes
+    // timestamp, score, steps, difficulty and levels cleared
+    private static final int RECORD_SIZE = 8 + 4 + 4 + 2 + 2;
+
+    private static final long RETRY_DELAY = 100; // Milliseconds before a failed batch is written again, doubled each time
+    private static final long MAX_RETRY_DELAY = 60_000;
+
+    private final Path log;
+    private final Path index;
+    private final Path records;
+    private final int capacity;
+
+    // Only changed while writing, holding the lock on the log
+    private final List<ScoreEntry> working = new ArrayList<>(); // Highest first, at most capacity entries
+    private final List<List<ScoreEntry>> workingByDifficulty = new ArrayList<>(DIFFICULTIES);
+    private final TreeMap<Integer, Long> histogram = new TreeMap<>(); // Number of games for each score
+    private long indexed; // Bytes of the log that the index covers
+    private long recordCount; // Games in the records file
+    private long lastTimestamp = Long.MIN_VALUE; // Time of the last game in the records file
+    private long retryDelay = RETRY_DELAY; // Only used on the writer thread
+    private volatile long committed = -1; // Length of the log after this leaderboard last wrote or read it
+
+    private volatile View view = View.EMPTY; // What readers see, replaced after each batch
+
+    private final Queue<ScoreEntry> queue = new ConcurrentLinkedQueue<>(); // Scores not written yet
+    private final AtomicBoolean scheduled = new AtomicBoolean(); // True while a batch write is pending
+    private final AtomicBoolean refreshing = new AtomicBoolean(); // True while a refresh is pending
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>(); // Told when the scores change
+    private final ExecutorService writer; // Writes the batches in order, off the games' threads
+
+    /**
+     * An immutable copy of the index for queries.
+     *
+     * @param top          the best scores, highest first.
+     * @param byDifficulty the best scores of each difficulty, highest first.
+     * @param scores       every distinct score, lowest first.
+     * @param below        for each distinct score, the number of games with a lower score.
+     * @param counts       for each distinct score, the number of games with that score.
+     * @param total        the number of games.
+     * @param records      the number of games in the records file.
+     */
+    private record View(List<ScoreEntry> top, List<List<ScoreEntry>> byDifficulty,
+                        int[] scores, long[] below, long[] counts, long total, long records) {
+        static final View EMPTY = new View(List.of(), List.of(), new int[0], new long[0], new long[0], 0, 0);
+    }
+
+    /**
+     * Holder class so the default leaderboard is opened on first use, exactly once.
+     */
+    private static final class Holder {
+        static final Leaderboard INSTANCE = openAsync(DEFAULT_PATH, DEFAULT_CAPACITY);
+
+        static {
+            INSTANCE.watch();
+            // Write the scores of games that ended just before the program exits
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::flush, "leaderboard-flush"));
+        }
+    }
+
+    private Leaderboard(Path log, int capacity) {
+        this.log = log;
+        this.index = indexPath(log);
+        this.records = recordsPath(log);
+        this.capacity = capacity;
+        for (int i = 0; i < DIFFICULTIES; i++) {
+            workingByDifficulty.add(new ArrayList<>());
+        }
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the leaderboard of the default scores file, opening it if this is the first call.
+     * It is loaded in the background, until then it is empty.
+     *
+     * @return the default leaderboard.
+     */
+    public static Leaderboard getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Opens the leaderboard of a scores file.
+     * Reads the saved index and the scores logged after it, or the whole log if there is no usable index.
+     * A missing or unreadable file is an empty leaderboard.
+     *
+     * @param log      the scores file.
+     * @param capacity the number of top scores to keep, overall and per difficulty.
+     * @return the leaderboard.
+     */
+    public static Leaderboard open(Path log, int capacity) {
+        Leaderboard leaderboard = new Leaderboard(log, capacity);
+        leaderboard.load();
+        return leaderboard;
+    }
+
+    /**
+     * Opens the leaderboard of a scores file without waiting for it to be read.
+     * The scores are read on the background thread; until then the leaderboard is empty,
+     * and listeners are told once they are loaded.
+     *
+     * @param log      the scores file.
+     * @param capacity the number of top scores to keep, overall and per difficulty.
+     * @return the leaderboard.
+     */
+    public static Leaderboard openAsync(Path log, int capacity) {
+        Leaderboard leaderboard = new Leaderboard(log, capacity);
+        leaderboard.writer.execute(leaderboard::load);
+        return leaderboard;
+    }
+
+    /**
+     * Reads the saved index and what was logged since.
+     */
+    private void load() {
+        try {
+            if (Files.exists(log)) {
+                commit(List.of()); // Reads what was logged since the index was saved
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading leaderboard: " + e.getMessage());
+        }
+        publish();
+    }
+
+    /**
+     * Reads any scores other processes added to the log, on the background thread.
+     * Refreshes requested while one is pending are merged into it.
+     */
+    public void refresh() {
+        if (refreshing.compareAndSet(false, true)) {
+            writer.execute(() -> {
+                refreshing.set(false);
+                load();
+            });
+        }
+    }
+
+    /**
+     * Starts watching the scores file on a background thread, refreshing the leaderboard whenever it changes.
+     * Only the lines appended since the last refresh are read. Changes this leaderboard made itself are skipped.
+     */
+    public void watch() {
+        Path dir = log.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(dir);
+            WatchService watcher = dir.getFileSystem().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+            Thread thread = new Thread(() -> watchLoop(watcher), "leaderboard-watch");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (IOException e) {
+            System.err.println("Error watching leaderboard: " + e.getMessage());
+        }
+    }
+
+    private void watchLoop(WatchService watcher) {
+        try (watcher) {
+            while (true) {
+                WatchKey key = watcher.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || (log.getFileName().equals(event.context()) && changedElsewhere())) {
+                        refresh();
+                    }
+                }
+                if (!key.reset()) return; // The directory is gone
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Error watching leaderboard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether the log is not the length this leaderboard last left it at, so another process changed it.
+     *
+     * @return true if the log has to be read again.
+     */
+    private boolean changedElsewhere() {
+        try {
+            return Files.size(log) != committed;
+        } catch (IOException e) {
+            return true; // e.g. the log was deleted, so read it again
+        }
+    }
+
+    /**
+     * Adds a listener that is told, on the background thread, whenever the scores change.
+     *
+     * @param listener the listener.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addListener(Runnable)}.
+     *
+     * @param listener the listener.
+     */
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Records the score of a finished game, without waiting for it to be written.
+     * Safe to call from any thread. Negative scores are games that were lost and are not recorded.
+     *
+     * @param entry the score and the details of the game.
+     */
+    public void submit(ScoreEntry entry) {
+        if (entry.getScore() < 0) return;
+
+        queue.add(entry);
+        if (scheduled.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    /**
+     * Waits until every score submitted so far is written.
+     */
+    public void flush() {
+        CompletableFuture.runAsync(this::drain, writer).join();
+    }
+
+    /**
+     * Returns the highest scores.
+     * Scores that were submitted but not written yet are not included.
+     *
+     * @param count the number of scores to return, at most the capacity of the leaderboard.
+     * @return the highest scores, sorted from highest to lowest.
+     */
+    public List<ScoreEntry> top(int count) {
+        List<ScoreEntry> current = view.top();
+        return current.subList(0, Math.min(count, current.size()));
+    }
+
+    /**
+     * Returns the highest scores of games started at a difficulty.
+     *
+     * @param count      the number of scores to return, at most the capacity of the leaderboard.
+     * @param difficulty the difficulty, 0 to 10.
+     * @return the highest scores, sorted from highest to lowest.
+     */
+    public List<ScoreEntry> top(int count, int difficulty) {
+        View current = view;
+        if (difficulty < 0 || difficulty >= current.byDifficulty().size()) return List.of();
+
+        List<ScoreEntry> scores = current.byDifficulty().get(difficulty);
+        return scores.subList(0, Math.min(count, scores.size()));
+    }
+
+    /**
+     * Returns the highest scores of games that ended between two dates, in the local time zone.
+     * Only the records of those games are read from disk.
+     *
+     * @param count the number of scores to return.
+     * @param from  the first day, inclusive.
+     * @param to    the last day, inclusive.
+     * @return the highest scores, sorted from highest to lowest.
+     */
+    public List<ScoreEntry> top(int count, LocalDate from, LocalDate to) {
+        View current = view;
+        List<ScoreEntry> best = new ArrayList<>(count + 1);
+        if (current.records() == 0 || count <= 0) return best;
+
+        long fromMillis = from.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long toMillis = to.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        try (FileChannel channel = FileChannel.open(records, StandardOpenOption.READ)) {
+            long length = Math.min(channel.size(), RECORDS_HEADER + current.records() * RECORD_SIZE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int recordsInFile = (int) ((length - RECORDS_HEADER) / RECORD_SIZE);
+
+            // Find the first game that ended on or after the first day
+            int low = 0;
+            int high = recordsInFile;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (buffer.getLong(RECORDS_HEADER + mid * RECORD_SIZE) < fromMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            for (int i = low; i < recordsInFile; i++) {
+                int offset = RECORDS_HEADER + i * RECORD_SIZE;
+                long timestamp = buffer.getLong(offset);
+                if (timestamp >= toMillis) break;
+
+                int score = buffer.getInt(offset + 8);
+                if (best.size() == count && score <= best.getLast().getScore()) continue;
+                offer(best, ScoreEntry.of(score, buffer.getShort(offset + 16), buffer.getShort(offset + 18),
+                        buffer.getInt(offset + 12), timestamp), count);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading leaderboard: " + e.getMessage());
+        }
+        return best;
+    }
+
+    /**
+     * Returns the percentile rank of a score: the percentage of recorded games with a lower score,
+     * counting games with the same score as half lower.
+     *
+     * @param score the score to rank.
+     * @return the percentile rank from 0 to 100, or 0 if no games are recorded.
+     */
+    public double percentileRank(int score) {
+        View current = view;
+        if (current.total() == 0) return 0;
+
+        int low = 0;
+        int high = current.scores().length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (current.scores()[mid] < score) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        double lower;
+        if (low == current.scores().length) {
+            lower = current.total();
+        } else if (current.scores()[low] == score) {
+            lower = current.below()[low] + current.counts()[low] / 2.0;
+        } else {
+            lower = current.below()[low];
+        }
+        return 100.0 * lower / current.total();
+    }
+
+    /**
+     * Returns the number of games recorded.
+     *
+     * @return the number of games.
+     */
+    public long getGameCount() {
+        return view.total();
+    }
+
+    /**
+     * Writes every queued score in one batch. Runs on the writer thread.
+     * A batch that fails to write goes back on the queue and is tried again later, waiting longer each time.
+     */
+    private void drain() {
+        scheduled.set(false); // Scores queued from now on schedule another batch
+
+        List<ScoreEntry> batch = new ArrayList<>();
+        ScoreEntry entry;
+        while ((entry = queue.poll()) != null) {
+            batch.add(entry);
+        }
+        if (batch.isEmpty()) return;
+
+        try {
+            commit(batch);
+            retryDelay = RETRY_DELAY;
+        } catch (IOException | RuntimeException e) {
+            // e.g. OverlappingFileLockException if another leaderboard in this program is writing the same file
+            System.err.println("Error writing to file: " + e.getMessage());
+            queue.addAll(batch);
+            CompletableFuture.runAsync(this::retry,
+                    CompletableFuture.delayedExecutor(retryDelay, TimeUnit.MILLISECONDS, writer));
+            retryDelay = Math.min(2 * retryDelay, MAX_RETRY_DELAY);
+        }
+        publish();
+    }
+
+    /**
+     * Writes the scores of a failed batch again, unless a batch is already scheduled to.
+     */
+    private void retry() {
+        if (scheduled.compareAndSet(false, true)) {
+            drain();
+        }
+    }
+
+    /**
+     * Appends a batch of scores to the log and brings the index and records up to date, holding a lock on the log.
+     * The index is read again first, as other processes may have added scores since.
+     *
+     * @param batch the scores to append, may be empty.
+     */
+    private void commit(List<ScoreEntry> batch) throws IOException {
+        if (log.getParent() != null) {
+            Files.createDirectories(log.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            long length = channel.size();
+            if (!readIndex() || indexed > length || !recordsComplete()) {
+                // No index, or the log was replaced since the index was saved: start over
+                reset();
+            }
+            lastTimestamp = readLastTimestamp();
+
+            if (!batch.isEmpty()) {
+                StringBuilder lines = new StringBuilder();
+                long last = lastTimestamp;
+                for (ScoreEntry entry : batch) {
+                    ScoreEntry score = (entry.getTimestamp() >= last) ? entry : ScoreEntry.of(entry.getScore(),
+                            entry.getDifficulty(), entry.getLevelsCleared(), entry.getSteps(), last);
+                    last = score.getTimestamp();
+                    lines.append(score.getScore()).append(' ').append(score.getDate()).append(' ')
+                            .append(score.getDifficulty()).append(' ').append(score.getLevelsCleared()).append(' ')
+                            .append(score.getSteps()).append(' ').append(score.getTimestamp()).append('\n');
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                channel.position(length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+
+            if (indexed < channel.size()) {
+                appendRecords(scanLog(channel));
+                writeIndex();
+            } else if (!Files.exists(index)) {
+                writeIndex();
+            }
+            committed = channel.size();
+        }
+    }
+
+    /**
+     * Reads the time of the last game in the records file.
+     *
+     * @return the time in milliseconds since the epoch, or Long.MIN_VALUE if there are no records.
+     */
+    private long readLastTimestamp() throws IOException {
+        if (recordCount == 0) return Long.MIN_VALUE;
+
+        try (FileChannel channel = FileChannel.open(records, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            long position = RECORDS_HEADER + (recordCount - 1) * RECORD_SIZE;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Leaderboard records are truncated");
+                }
+            }
+            return buffer.getLong(0);
+        }
+    }
+
+    /**
+     * Adds the scores logged after the indexed part of the log.
+     * Each line holds a score and a date separated by a space, optionally followed by the
+     * difficulty, levels cleared, steps and time of the game. Invalid lines are skipped.
+     * The channel is left open.
+     *
+     * @param channel the open log.
+     * @return the scores that were added, in the order they were logged.
+     */
+    private List<ScoreEntry> scanLog(FileChannel channel) throws IOException {
+        List<ScoreEntry> added = new ArrayList<>();
+        channel.position(indexed);
+        // Not closed, as that would close the channel
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            try {
+                String[] parts = line.split(" ");
+                if (parts.length < 2) continue; // Skip invalid lines
+                ScoreEntry entry = parts.length < 6
+                        ? new ScoreEntry(Integer.parseInt(parts[0]), parts[1])
+                        : new ScoreEntry(Integer.parseInt(parts[0]), parts[1], Integer.parseInt(parts[2]),
+                                Integer.parseInt(parts[3]), Integer.parseInt(parts[4]), Long.parseLong(parts[5]));
+                add(entry);
+                added.add(entry);
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid score format in file: " + line);
+            }
+        }
+        indexed = channel.size();
+        return added;
+    }
+
+    /**
+     * Adds a score to the top scores and the count of games for each score.
+     *
+     * @param entry the score to add.
+     */
+    private void add(ScoreEntry entry) {
+        offer(working, entry, capacity);
+        if (entry.getDifficulty() >= 0 && entry.getDifficulty() < DIFFICULTIES) {
+            offer(workingByDifficulty.get(entry.getDifficulty()), entry, capacity);
+        }
+        histogram.merge(entry.getScore(), 1L, Long::sum);
+    }
+
+    /**
+     * Adds a score to a sorted list of top scores if it is high enough.
+     * Equal scores keep the order they were added in, like a stable sort of the log.
+     *
+     * @param top   the top scores, highest first.
+     * @param entry the score to add.
+     * @param limit the most scores to keep.
+     */
+    private static void offer(List<ScoreEntry> top, ScoreEntry entry, int limit) {
+        if (top.size() == limit && entry.compareTo(top.get(limit - 1)) >= 0) return;
+
+        // Insert after any equal scores
+        int low = 0;
+        int high = top.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (top.get(mid).compareTo(entry) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        top.add(low, entry);
+        if (top.size() > limit) {
+            top.removeLast();
+        }
+    }
+
+    /**
+     * Forgets everything indexed, so the whole log is read again.
+     */
+    private void reset() {
+        working.clear();
+        workingByDifficulty.forEach(List::clear);
+        histogram.clear();
+        indexed = 0;
+        recordCount = 0;
+    }
+
+    /**
+     * Replaces the view readers see with a copy of the index and tells the listeners.
+     */
+    private void publish() {
+        List<List<ScoreEntry>> byDifficulty = new ArrayList<>(DIFFICULTIES);
+        for (List<ScoreEntry> scores : workingByDifficulty) {
+            byDifficulty.add(List.copyOf(scores));
+        }
+
+        int[] scores = new int[histogram.size()];
+        long[] below = new long[scores.length];
+        long[] counts = new long[scores.length];
+        long total = 0;
+        int i = 0;
+        for (Map.Entry<Integer, Long> entry : histogram.entrySet()) {
+            scores[i] = entry.getKey();
+            below[i] = total;
+            counts[i] = entry.getValue();
+            total += entry.getValue();
+            i++;
+        }
+        view = new View(List.copyOf(working), List.copyOf(byDifficulty), scores, below, counts, total, recordCount);
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Returns whether the records file holds every game the index says it does.
+     *
+     * @return false if records are missing, e.g. the file was deleted.
+     */
+    private boolean recordsComplete() throws IOException {
+        return recordCount == 0 || (Files.exists(records) && Files.size(records) >= RECORDS_HEADER + recordCount * RECORD_SIZE);
+    }
+
+    /**
+     * Appends games to the records file.
+     * Records left behind by a write that didn't finish updating the index are dropped first.
+     * Games are stamped no earlier than the game before, in case the log has lines out of time order,
+     * e.g. from before games were stamped when they are logged.
+     *
+     * @param added the games to append, in the order they were logged.
+     */
+    private void appendRecords(List<ScoreEntry> added) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORDS_HEADER + added.size() * RECORD_SIZE);
+        if (recordCount == 0) {
+            buffer.putInt(RECORDS_MAGIC).putShort(VERSION).putShort((short) 0);
+        }
+        for (ScoreEntry entry : added) {
+            lastTimestamp = Math.max(lastTimestamp, entry.getTimestamp());
+            buffer.putLong(lastTimestamp)
+                    .putInt(entry.getScore())
+                    .putInt(entry.getSteps())
+                    .putShort((short) entry.getDifficulty())
+                    .putShort((short) entry.getLevelsCleared());
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(records, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long end = (recordCount == 0) ? 0 : RECORDS_HEADER + recordCount * RECORD_SIZE;
+            channel.truncate(end);
+            channel.position(end);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        recordCount += added.size();
+    }
+
+    /**
+     * Reads the saved index, if there is one for this capacity.
+     *
+     * @return true if the index was read.
+     */
+    private boolean readIndex() {
+        if (!Files.exists(index)) return false;
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(index))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION || in.readInt() != capacity) {
+                return false;
+            }
+            long length = in.readLong();
+            long count = in.readLong();
+            List<ScoreEntry> top = readEntries(in);
+            List<List<ScoreEntry>> byDifficulty = new ArrayList<>(DIFFICULTIES);
+            for (int i = 0; i < DIFFICULTIES; i++) {
+                byDifficulty.add(readEntries(in));
+            }
+            TreeMap<Integer, Long> counts = new TreeMap<>();
+            int scores = in.readInt();
+            for (int i = 0; i < scores; i++) {
+                counts.put(in.readInt(), in.readLong());
+            }
+
+            reset();
+            working.addAll(top);
+            for (int i = 0; i < DIFFICULTIES; i++) {
+                workingByDifficulty.get(i).addAll(byDifficulty.get(i));
+            }
+            histogram.putAll(counts);
+            indexed = length;
+            recordCount = count;
+            return true;
+        } catch (IOException e) {
+            return false; // A broken index is rebuilt from the log
+        }
+    }
+
+    private static List<ScoreEntry> readEntries(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<ScoreEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new ScoreEntry(in.readInt(), in.readUTF(), in.readShort(), in.readShort(),
+                    in.readInt(), in.readLong()));
+        }
+        return entries;
+    }
+
+    /**
+     * Saves the index, replacing the old one in one step.
+     */
+    private void writeIndex() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(capacity);
+            out.writeLong(indexed);
+            out.writeLong(recordCount);
+            writeEntries(out, working);
+            for (List<ScoreEntry> scores : workingByDifficulty) {
+                writeEntries(out, scores);
+            }
+            out.writeInt(histogram.size());
+            for (Map.Entry<Integer, Long> entry : histogram.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+        }
+        SaveFile.writeAtomically(ByteBuffer.wrap(bytes.toByteArray()), index);
+    }
+
+    private static void writeEntries(DataOutputStream out, List<ScoreEntry> entries) throws IOException {
+        out.writeInt(entries.size());
+        for (ScoreEntry entry : entries) {
+            out.writeInt(entry.getScore());
+            out.writeUTF(entry.getDate());
+            out.writeShort(entry.getDifficulty());
+            out.writeShort(entry.getLevelsCleared());
+            out.writeInt(entry.getSteps());
+            out.writeLong(entry.getTimestamp());
+        }
+    }
+
+    /**
+     * Returns the path of the index of a scores file, e.g. scores.idx for scores.txt.
+     *
+     * @param log the scores file.
+     * @return the index file next to it.
+     */
+    static Path indexPath(Path log) {
+        return siblingPath(log, ".idx");
+    }
+
+    /**
+     * Returns the path of the records of a scores file, e.g. scores.rec for scores.txt.
+     *
+     * @param log the scores file.
+     * @return the records file next to it.
+     */
+    static Path recordsPath(Path log) {
+        return siblingPath(log, ".rec");
+    }
+
+    private static Path siblingPath(Path log, String extension) {
+        String name = log.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return log.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + extension);
+    }
+}
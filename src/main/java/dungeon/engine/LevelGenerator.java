@@ -0,0 +1,207 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates the board of a level.
+ * A level only depends on the board size, the level number, the difficulty, where the player
+ * enters it and the game seed. It doesn't touch the engine, so the next level can be generated
+ * on another thread while the current one is played.
+ */
+final class LevelGenerator {
+
+    private static final int BAND_ROWS = 64; // Rows of the board generated as one task
+
+    /**
+     * A generated level and where its ladder is, which is where the player enters the level after it.
+     *
+     * @param board     the board of the level.
+     * @param ladderRow the row of the ladder.
+     * @param ladderCol the column of the ladder.
+     */
+    record GeneratedLevel(Board board, int ladderRow, int ladderCol) {
+    }
+
+    private LevelGenerator() {
+    }
+
+    /**
+     * Returns the random number generator used to generate a level.
+     * It only depends on the game seed and the level, so a level is the same no matter
+     * what happened before it was generated.
+     *
+     * @param seed  the game seed.
+     * @param level the level to generate, starting at 1.
+     * @return a new random number generator for the level.
+     */
+    static Rng levelRng(long seed, int level) {
+        return new Rng(Rng.mix64(seed + level * 0x9E3779B97F4A7C15L));
+    }
+
+    /**
+     * Generates a level with various game objects.
+     * The entrance is placed where the player enters, and other objects are randomly placed in free cells.
+     * Boards larger than 10x10 get proportionally more objects, apart from the single ladder.
+     * The board is split into bands of rows, each with its share of the objects and its own random
+     * numbers, so large boards generate their bands in parallel and the level doesn't depend on the threads.
+     *
+     * @param size        the width and height of the board.
+     * @param level       the level, starting at 1.
+     * @param counts      the objects of the level on a 10x10 board, from the difficulty table.
+     * @param entranceRow the row the player enters at.
+     * @param entranceCol the column the player enters at.
+     * @param seed        the game seed.
+     * @return the new level.
+     */
+    static GeneratedLevel generate(int size, int level, DifficultyTable.Counts counts, int entranceRow, int entranceCol,
+                                  long seed) {
+        Rng rand = levelRng(seed, level);
+        int area = size * size;
+        byte[] cells = new byte[area]; // Object types, then packed with the floor tiles
+
+        // Generate the entrance based on the player's position (bottom left by default, variable on later levels)
+        int entrance = entranceRow * size + entranceCol;
+        cells[entrance] = Board.ENTRANCE;
+
+        // The only ladder, in any other cell
+        int ladder = rand.nextInt(area - 1);
+        if (ladder >= entrance) ladder++;
+        cells[ladder] = Board.LADDER;
+
+        // Object counts, scaled to the area of the board
+        double scale = Math.max(1.0, area / 100.0);
+        int[] scaled = {scaled(counts.traps(), scale), scaled(counts.gold(), scale), scaled(counts.meleeMutants(), scale),
+                scaled(counts.rangedMutants(), scale), scaled(counts.healthPotions(), scale)};
+
+        Bands bands = new Bands(cells, size, scaled, rand.nextLong(), 0, (size + BAND_ROWS - 1) / BAND_ROWS);
+        if (size > BAND_ROWS) {
+            ForkJoinPool.commonPool().invoke(bands);
+        } else {
+            bands.compute();
+        }
+        return new GeneratedLevel(Board.fromBytes(size, cells), ladder / size, ladder % size);
+    }
+
+    private static int scaled(int count, double scale) {
+        return (int) Math.round(count * scale);
+    }
+
+    /**
+     * Generates a range of bands of rows, splitting it in half until it is one band.
+     */
+    private static final class Bands extends RecursiveAction {
+        private static final int[] TYPES = {
+                Board.TRAP, Board.GOLD, Board.MELEE_MUTANT, Board.RANGED_MUTANT, Board.HEALTH_POTION
+        };
+
+        private final byte[] cells;
+        private final int size;
+        private final int[] counts; // Number of each of TYPES on the whole board
+        private final long seed;
+        private final int fromBand;
+        private final int toBand;
+
+        Bands(byte[] cells, int size, int[] counts, long seed, int fromBand, int toBand) {
+            this.cells = cells;
+            this.size = size;
+            this.counts = counts;
+            this.seed = seed;
+            this.fromBand = fromBand;
+            this.toBand = toBand;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBand - fromBand > 1) {
+                int middle = (fromBand + toBand) >>> 1;
+                invokeAll(new Bands(cells, size, counts, seed, fromBand, middle),
+                        new Bands(cells, size, counts, seed, middle, toBand));
+                return;
+            }
+            for (int band = fromBand; band < toBand; band++) {
+                generateBand(band);
+            }
+        }
+
+        private void generateBand(int band) {
+            Rng rand = new Rng(Rng.mix64(seed + band * 0x9E3779B97F4A7C15L));
+            long area = (long) size * size;
+            int start = band * BAND_ROWS * size;
+            int end = Math.min(size, (band + 1) * BAND_ROWS) * size;
+
+            // This band's share of each object, rounded so the shares add up to the whole board's count
+            int[] share = new int[TYPES.length];
+            int objects = 0;
+            for (int t = 0; t < TYPES.length; t++) {
+                share[t] = (int) ((long) counts[t] * end / area - (long) counts[t] * start / area);
+                objects += share[t];
+            }
+
+            // Sample distinct cells: a Fisher-Yates shuffle of the band's cell indexes that stops after the
+            // last object, keeping only the swapped entries. Cells that already hold an object are passed over.
+            int cellCount = end - start;
+            IndexMap swapped = new IndexMap(Math.min(cellCount, objects + 2));
+            int drawn = 0;
+            for (int t = 0; t < TYPES.length; t++) {
+                for (int c = 0; c < share[t]; c++) {
+                    while (drawn < cellCount) {
+                        int pick = drawn + rand.nextInt(cellCount - drawn);
+                        int cell = start + swapped.get(pick);
+                        swapped.put(pick, swapped.get(drawn));
+                        drawn++;
+                        if (cells[cell] == Board.EMPTY) {
+                            cells[cell] = (byte) TYPES[t];
+                            break;
+                        }
+                    }
+                }
+            }
+
+            // Pick a random floor tile variant for each cell, front ends decide how to draw it
+            for (int i = start; i < end; i++) {
+                cells[i] = Board.pack(cells[i], rand.nextInt(GameEngine.FLOOR_TILES));
+            }
+        }
+    }
+
+    /**
+     * The entries of the index array that the partial shuffle swapped, every other index maps to itself.
+     * An open addressing hash map of ints, so it takes memory for the objects placed and not the whole board.
+     */
+    private static final class IndexMap {
+        private final int[] keys;
+        private final int[] values;
+        private final int mask;
+
+        IndexMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(8, expected * 4) - 1) << 1; // At most half full
+            keys = new int[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            Arrays.fill(keys, -1);
+        }
+
+        int get(int key) {
+            for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return values[slot];
+                if (keys[slot] == -1) return key;
+            }
+        }
+
+        void put(int key, int value) {
+            int slot = slot(key);
+            while (keys[slot] != -1 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        private int slot(int key) {
+            int hash = key * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+}
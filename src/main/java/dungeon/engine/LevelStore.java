@@ -0,0 +1,207 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the boards of the levels the player has left, within a memory budget.
+ * Boards are kept in memory until they use more than the budget, then the least recently used
+ * ones are paged out to a temporary file as their packed bytes and read back if they are needed again.
+ * Each level keeps its place in the page file once it has one, and is paged out to it again,
+ * so the file is only as big as the levels in it. The page file is only created once a board is paged out,
+ * and is deleted when the store is closed or the program exits.
+ */
+final class LevelStore {
+
+    private final LinkedHashMap<Integer, Board> resident = new LinkedHashMap<>(16, 0.75f, true); // Least recently used first
+    private final Set<Integer> paged = new HashSet<>(); // Levels that are only in the page file
+    private final Map<Integer, Long> slots = new HashMap<>(); // Offset of each level in the page file
+    private long budget; // Bytes of boards to keep in memory
+    private long used; // Bytes of the boards in memory
+    private FileChannel pageFile; // Null until the first board is paged out
+
+    /**
+     * Creates an empty store.
+     *
+     * @param budget the most bytes of boards to keep in memory.
+     */
+    LevelStore(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Adds the board of a level the player has left, paging out other levels if it doesn't fit the budget.
+     *
+     * @param level the level.
+     * @param board the board of the level.
+     */
+    void put(int level, Board board) {
+        Board old = resident.put(level, board);
+        if (old != null) used -= bytes(old);
+        paged.remove(level);
+        used += bytes(board);
+        trim();
+    }
+
+    /**
+     * Returns the board of a level, reading it back from the page file if it was paged out.
+     *
+     * @param level the level.
+     * @return the board, or null if the store doesn't have the level.
+     */
+    Board get(int level) {
+        Board board = resident.get(level);
+        if (board != null) return board;
+
+        if (!paged.contains(level)) return null;
+        try {
+            board = pageIn(slots.get(level));
+        } catch (IOException e) {
+            System.err.println("Error reading level " + level + ": " + e.getMessage());
+            return null;
+        }
+        put(level, board);
+        return board;
+    }
+
+    /**
+     * Returns whether a level's board is in memory.
+     *
+     * @param level the level.
+     * @return true if the board is in memory, false if it is paged out or not in the store.
+     */
+    boolean isResident(int level) {
+        return resident.containsKey(level);
+    }
+
+    /**
+     * Changes the memory budget, paging out boards if they no longer fit.
+     *
+     * @param budget the most bytes of boards to keep in memory.
+     */
+    void setBudget(long budget) {
+        this.budget = budget;
+        trim();
+    }
+
+    /**
+     * Forgets every level, e.g. when a saved game replaces the dungeon.
+     */
+    void clear() {
+        resident.clear();
+        paged.clear();
+        slots.clear();
+        used = 0;
+        if (pageFile != null) {
+            try {
+                pageFile.truncate(0);
+            } catch (IOException e) {
+                System.err.println("Error clearing level page file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Pages out the least recently used boards until the rest fit the budget.
+     */
+    private void trim() {
+        Iterator<Map.Entry<Integer, Board>> eldest = resident.entrySet().iterator();
+        while (used > budget && eldest.hasNext()) {
+            Map.Entry<Integer, Board> entry = eldest.next();
+            try {
+                pageOut(entry.getKey(), entry.getValue());
+                paged.add(entry.getKey());
+            } catch (IOException e) {
+                // Keep it in memory rather than lose the level
+                System.err.println("Error paging out level " + entry.getKey() + ": " + e.getMessage());
+                return;
+            }
+            used -= bytes(entry.getValue());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Writes a board to the page file, over the level's earlier board if it was paged out before.
+     * A level's board is always the same size, so it fits the place of the earlier one.
+     *
+     * @param level the level.
+     * @param board the board.
+     */
+    private void pageOut(int level, Board board) throws IOException {
+        if (pageFile == null) {
+            Path path = Files.createTempFile("dungeon-levels", ".bin");
+            path.toFile().deleteOnExit();
+            pageFile = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        Long slot = slots.get(level);
+        long offset = (slot != null) ? slot : pageFile.size();
+        ByteBuffer buffer = ByteBuffer.allocate(4 + board.getSize() * board.getSize());
+        buffer.putInt(board.getSize()).put(board.toBytes()).flip();
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += pageFile.write(buffer, position);
+        }
+        slots.put(level, offset);
+    }
+
+    /**
+     * Reads a board from the page file.
+     *
+     * @param offset the offset of the board.
+     * @return the board.
+     */
+    private Board pageIn(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        readFully(header, offset);
+        int size = header.flip().getInt();
+        ByteBuffer cells = ByteBuffer.allocate(size * size);
+        readFully(cells, offset + 4);
+        return Board.fromBytes(size, cells.array());
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = pageFile.read(buffer, position);
+            if (read < 0) throw new IOException("Level page file is truncated");
+            position += read;
+        }
+    }
+
+    /**
+     * Closes and deletes the page file.
+     */
+    void close() {
+        clear();
+        if (pageFile != null) {
+            try {
+                pageFile.close();
+            } catch (IOException e) {
+                System.err.println("Error closing level page file: " + e.getMessage());
+            }
+            pageFile = null;
+        }
+    }
+
+    /**
+     * Returns roughly how much memory a board uses: its packed cells and the ranged mutant counts.
+     *
+     * @param board the board.
+     * @return the size in bytes.
+     */
+    static long bytes(Board board) {
+        long size = board.getSize();
+        return size * size + 2 * 4 * size;
+    }
+}
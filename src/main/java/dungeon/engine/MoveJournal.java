@@ -0,0 +1,288 @@
+package dungeon.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An append-only journal of the player's moves, used to autosave a game and recover it after a crash.
+ * The journal file starts with a snapshot of the game in the {@link SaveFile} binary format,
+ * followed by one byte per move made since the snapshot. A game is recovered by restoring the
+ * snapshot and replaying the moves, which is exact because every roll derives from the game seed.
+ * Moves are written in batches of {@link #FLUSH_EVERY}, so autosaving costs a few bytes per move
+ * and a crash loses at most the last batch. Every {@link #COMPACT_EVERY} moves the journal is
+ * rewritten as a fresh snapshot, which keeps the file small and recovery quick.
+ * The game's thread only takes the snapshot and buffers the moves: every write happens in order on the
+ * {@link SaveFile} I/O thread, so moves go on being appended to the old file until the new one replaces it.
+ * Autosaving must never stop the game, so a journal that fails to write reports the error and stops.
+ */
+public final class MoveJournal implements Closeable {
+
+    public static final Path DEFAULT_PATH = SaveFile.DEFAULT_PATH.resolveSibling("journal.bin");
+
+    static final int FLUSH_EVERY = 16; // Moves buffered before they are written
+    static final int COMPACT_EVERY = 64; // Moves replayed at most when recovering
+
+    private static final int MAGIC = 0x4D444A4C; // "MDJL"
+    private static final short VERSION = 1;
+    // magic, version and the length of the snapshot
+    private static final int HEADER_SIZE = 4 + 2 + 4;
+
+    private final GameEngine engine;
+    private final Path path;
+    private final ByteBuffer pending = ByteBuffer.allocate(FLUSH_EVERY); // Moves not handed to the I/O thread yet
+    private int movesSinceSnapshot;
+    private boolean closed; // No more moves are recorded
+    private FileChannel channel; // Only used on the I/O thread, null once the journal is closed or failed
+    private volatile boolean failed; // A write failed, so moves are no longer recorded until the next snapshot
+
+    private MoveJournal(GameEngine engine, Path path) {
+        this.engine = engine;
+        this.path = path;
+    }
+
+    /**
+     * Starts journaling a game, replacing any journal already at the path.
+     * The engine records every move in the journal from now on.
+     *
+     * @param engine the game to journal.
+     * @param path   the journal file.
+     * @return the journal.
+     */
+    public static MoveJournal start(GameEngine engine, Path path) {
+        MoveJournal journal = new MoveJournal(engine, path);
+        journal.compact();
+        engine.setJournal(journal);
+        return journal;
+    }
+
+    /**
+     * Returns whether there is a journal to recover at the path.
+     *
+     * @param path the journal file.
+     * @return true if the file exists.
+     */
+    public static boolean exists(Path path) {
+        return Files.exists(path);
+    }
+
+    /**
+     * Rebuilds a headless game from a journal with the {@link DifficultyTable#LINEAR} levels.
+     *
+     * @param path the journal file.
+     * @return the recovered game, without a listener or journal.
+     * @throws IOException if the file can't be read or is not a journal.
+     */
+    public static GameEngine recover(Path path) throws IOException {
+        return recover(path, DifficultyTable.LINEAR);
+    }
+
+    /**
+     * Rebuilds a headless game from a journal: restores its snapshot and replays the moves after it.
+     * A move that was only partly written is ignored.
+     *
+     * @param path  the journal file.
+     * @param table the difficulty table the game was played with, which the levels still to come are made from.
+     * @return the recovered game, without a listener or journal.
+     * @throws IOException if the file can't be read or is not a journal.
+     */
+    public static GameEngine recover(Path path, DifficultyTable table) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a move journal");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported journal version " + version);
+        }
+        int snapshotLength = buffer.getInt();
+        if (snapshotLength < 0 || snapshotLength > buffer.remaining()) {
+            throw new IOException("Journal is truncated");
+        }
+        int movesStart = buffer.position() + snapshotLength;
+        SaveState snapshot = SaveFile.decode(buffer.slice(buffer.position(), snapshotLength));
+
+        GameEngine engine = new GameEngine(snapshot.size(), snapshot.difficulty(), null, snapshot.seed(), snapshot.levels(),
+                table);
+        engine.applySave(snapshot);
+
+        buffer.position(movesStart);
+        while (buffer.hasRemaining() && !engine.isGameOver()) {
+            Direction direction = Direction.fromOrdinal(buffer.get());
+            if (direction == null) break;
+            engine.movePlayer(direction.isVertical(), direction.isUpRight());
+        }
+        return engine;
+    }
+
+    /**
+     * Recovers a game from a journal and keeps journaling it in the same file.
+     * If the replayed game turns out to be over, the journal is deleted instead.
+     *
+     * @param path  the journal file.
+     * @param table the difficulty table the game was played with.
+     * @return the recovered game, without a listener.
+     * @throws IOException if the file can't be read or is not a journal.
+     */
+    public static GameEngine resume(Path path, DifficultyTable table) throws IOException {
+        GameEngine engine = recover(path, table);
+        if (engine.isGameOver()) {
+            Files.deleteIfExists(path); // The game ended before its journal was deleted
+        } else {
+            start(engine, path);
+        }
+        return engine;
+    }
+
+    /**
+     * Records a move that is about to be made.
+     * Called by the engine before it moves the player.
+     *
+     * @param direction the direction of the move.
+     */
+    void record(Direction direction) {
+        if (closed || failed) return;
+
+        if (movesSinceSnapshot >= COMPACT_EVERY) {
+            compact();
+        }
+        pending.put((byte) direction.ordinal());
+        movesSinceSnapshot++;
+        if (!pending.hasRemaining()) {
+            flush();
+        }
+    }
+
+    /**
+     * Hands the buffered moves to the I/O thread, which appends them to the journal file.
+     */
+    public void flush() {
+        if (closed || pending.position() == 0) return;
+
+        byte[] moves = Arrays.copyOf(pending.array(), pending.position());
+        pending.clear();
+        SaveFile.IO.execute(() -> append(moves));
+    }
+
+    /**
+     * Rewrites the journal as a snapshot of the game as it is now, with no moves after it.
+     * The snapshot is taken now and written on the I/O thread, after the moves before it. The new file
+     * replaces the old one in a single rename, so a crash leaves one or the other.
+     * Called by the engine when a saved game is loaded, as the moves before it no longer apply.
+     * A journal that failed starts again from the new snapshot.
+     */
+    public void compact() {
+        if (closed) return;
+
+        flush();
+        SaveState snapshot = engine.createSave();
+        movesSinceSnapshot = 0;
+        SaveFile.IO.execute(() -> replace(snapshot));
+    }
+
+    /**
+     * Writes the buffered moves and closes the journal, leaving the file to be recovered later.
+     * Waits until everything recorded is written.
+     */
+    @Override
+    public void close() {
+        flush();
+        closed = true;
+        CompletableFuture.runAsync(() -> {
+            try {
+                closeChannel();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }, SaveFile.IO).join();
+    }
+
+    /**
+     * Closes the journal and deletes its file, as there is nothing left to recover.
+     * Called by the engine when the game is over. Waits for writes already handed to the I/O thread,
+     * so the file is gone when this returns.
+     */
+    public void discard() {
+        closed = true;
+        pending.clear();
+        CompletableFuture.runAsync(() -> {
+            try {
+                closeChannel();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }, SaveFile.IO).join();
+    }
+
+    /**
+     * Returns the number of moves recorded since the last snapshot.
+     *
+     * @return the number of moves that would be replayed.
+     */
+    public int getMovesSinceSnapshot() {
+        return movesSinceSnapshot;
+    }
+
+    /**
+     * Appends moves to the journal file. Runs on the I/O thread.
+     */
+    private void append(byte[] moves) {
+        if (channel == null) return;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(moves);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Replaces the journal file with a snapshot and no moves. Runs on the I/O thread.
+     */
+    private void replace(SaveState snapshot) {
+        ByteBuffer encoded = SaveFile.encode(snapshot);
+        ByteBuffer file = ByteBuffer.allocate(HEADER_SIZE + encoded.remaining());
+        file.putInt(MAGIC)
+                .putShort(VERSION)
+                .putInt(encoded.remaining())
+                .put(encoded)
+                .flip();
+
+        try {
+            closeChannel();
+            SaveFile.writeAtomically(file, path);
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            failed = false;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            FileChannel open = channel;
+            channel = null;
+            open.close();
+        }
+    }
+
+    private void fail(IOException e) {
+        failed = true;
+        System.err.println("Error writing move journal: " + e.getMessage());
+        try {
+            closeChannel();
+        } catch (IOException ignored) {
+            // Already reporting the first error
+        }
+    }
+}
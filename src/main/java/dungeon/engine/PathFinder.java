@@ -0,0 +1,387 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+/**
+ * Finds the cheapest paths over the current level of a game, e.g. for bots, hints and checking levels.
+ * Every step costs the weight of the cell it enters, so paths can steer around traps and mutants.
+ * Searches are Dijkstra's algorithm, or A* towards a single cell, over a bucket queue: the weights
+ * are small whole numbers, so cells are queued in a ring of buckets by cost instead of a heap.
+ * Which cells were reached and settled is kept in bitsets. All buffers are kept between searches
+ * and only grow when a larger board is searched, so searching allocates nothing.
+ * The result of the last search (its cost, end and steps) can be read until the next search.
+ * A path finder is not thread safe; each engine has its own, see {@link GameEngine#getPathFinder()}.
+ */
+public final class PathFinder {
+
+    /** The cost returned when there is no path. */
+    public static final int UNREACHABLE = -1;
+
+    // Row and column change of each step, in the order of DIRECTIONS
+    private static final Direction[] DIRECTIONS = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+    private static final int[] STEP_ROWS = {-1, 1, 0, 0};
+    private static final int[] STEP_COLS = {0, 0, -1, 1};
+
+    static final int MAX_GUIDES = 8; // Most objects of a kind that guide a search towards them
+
+    /**
+     * The cost of entering a cell with each kind of object.
+     */
+    public static final class Weights {
+        /** The weight of a cell that can't be entered. */
+        public static final int BLOCKED = -1;
+        /** The highest weight a cell can have. */
+        public static final int MAX_WEIGHT = 1000;
+
+        /** Every cell costs one step, so paths are the shortest. */
+        public static final Weights UNIFORM = of(1, 1, 1);
+        /** Traps and mutants cost extra, so paths go around them unless that is much longer. */
+        public static final Weights AVOID_DANGER = of(10, 4, 4);
+
+        private final int[] costs; // Weight of each object type code
+        private final int min; // Lowest weight of a cell that can be entered
+        private final int max; // Highest weight of a cell that can be entered
+
+        private Weights(int[] costs) {
+            this.costs = costs;
+            int lowest = MAX_WEIGHT;
+            int highest = 1;
+            for (int cost : costs) {
+                if (cost == BLOCKED) continue;
+                lowest = Math.min(lowest, cost);
+                highest = Math.max(highest, cost);
+            }
+            this.min = lowest;
+            this.max = highest;
+        }
+
+        /**
+         * Returns weights where every cell costs 1 apart from traps and mutants.
+         *
+         * @param trap         the weight of a trap, or BLOCKED.
+         * @param meleeMutant  the weight of a melee mutant, or BLOCKED.
+         * @param rangedMutant the weight of a ranged mutant, or BLOCKED.
+         * @return the weights.
+         */
+        public static Weights of(int trap, int meleeMutant, int rangedMutant) {
+            int[] costs = new int[16];
+            Arrays.fill(costs, 1);
+            return new Weights(costs).with(Board.TRAP, trap)
+                    .with(Board.MELEE_MUTANT, meleeMutant)
+                    .with(Board.RANGED_MUTANT, rangedMutant);
+        }
+
+        /**
+         * Returns a copy of these weights with the weight of one kind of object replaced.
+         *
+         * @param type   the object type code.
+         * @param weight the weight, from 1 to {@link #MAX_WEIGHT}, or BLOCKED.
+         * @return the new weights.
+         * @throws IllegalArgumentException if the weight is out of range.
+         */
+        public Weights with(int type, int weight) {
+            if (weight != BLOCKED && (weight < 1 || weight > MAX_WEIGHT)) {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+            int[] copy = costs.clone();
+            copy[type] = weight;
+            return new Weights(copy);
+        }
+
+        /**
+         * Returns the weight of a kind of object.
+         *
+         * @param type the object type code.
+         * @return the weight, or BLOCKED.
+         */
+        public int get(int type) {
+            return costs[type];
+        }
+    }
+
+    private final GameEngine engine;
+
+    // Scratch buffers, sized for the largest board searched so far
+    private int[] cost = new int[0]; // Cheapest known cost of each cell, valid where the cell was reached
+    private byte[] via = new byte[0]; // Direction of the step into each cell on its cheapest path
+    private long[] reached = new long[0]; // Cells with a known cost
+    private long[] settled = new long[0]; // Cells whose cost is final
+    private int[][] buckets = new int[0][]; // Queued cells by priority, modulo the number of buckets
+    private int[] bucketSizes = new int[0];
+    private byte[] steps = new byte[0]; // Direction of each step of the last path
+    private final int[] guideRows = new int[MAX_GUIDES]; // Cells the search heads for, see search
+    private final int[] guideCols = new int[MAX_GUIDES];
+    private int guides;
+
+    private int pathCost = UNREACHABLE;
+    private int pathLength;
+    private int end = -1; // Index of the cell the last path ends at
+
+    /**
+     * Creates a path finder for a game.
+     *
+     * @param engine the game whose current level is searched.
+     */
+    PathFinder(GameEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Finds the cheapest path between two cells.
+     *
+     * @param fromRow the row to start at.
+     * @param fromCol the column to start at.
+     * @param toRow   the row to reach.
+     * @param toCol   the column to reach.
+     * @param weights the cost of entering each kind of cell.
+     * @return the cost of the path, or {@link #UNREACHABLE}.
+     */
+    public int findPath(int fromRow, int fromCol, int toRow, int toCol, Weights weights) {
+        guideRows[0] = toRow;
+        guideCols[0] = toCol;
+        guides = 1;
+        return search(fromRow, fromCol, toRow * engine.getSize() + toCol, Board.EMPTY, weights);
+    }
+
+    /**
+     * Finds the cheapest path to the nearest object of a kind, which may be where the path starts.
+     * If the level has only a few of them, the search heads for the closest ones instead of
+     * spreading out evenly.
+     *
+     * @param fromRow the row to start at.
+     * @param fromCol the column to start at.
+     * @param type    the object type code to look for.
+     * @param weights the cost of entering each kind of cell.
+     * @return the cost of the path, or {@link #UNREACHABLE} if no such object can be reached.
+     */
+    public int findNearest(int fromRow, int fromCol, int type, Weights weights) {
+        Board board = engine.getBoard();
+        int size = board.getSize();
+        int found = 0;
+        for (int i = 0; i < size * size && found <= MAX_GUIDES; i++) {
+            if (board.getObject(i) == type) {
+                if (found < MAX_GUIDES) {
+                    guideRows[found] = i / size;
+                    guideCols[found] = i % size;
+                }
+                found++;
+            }
+        }
+        if (found == 0) {
+            clearPath();
+            return UNREACHABLE;
+        }
+        guides = (found <= MAX_GUIDES) ? found : 0;
+        return search(fromRow, fromCol, -1, type, weights);
+    }
+
+    /**
+     * Returns whether an object of a kind can be reached.
+     *
+     * @param fromRow the row to start at.
+     * @param fromCol the column to start at.
+     * @param type    the object type code to look for.
+     * @param weights the cost of entering each kind of cell, with BLOCKED for cells to keep off.
+     * @return true if there is a path.
+     */
+    public boolean isReachable(int fromRow, int fromCol, int type, Weights weights) {
+        return findNearest(fromRow, fromCol, type, weights) != UNREACHABLE;
+    }
+
+    /**
+     * Returns the cost of the last path found.
+     *
+     * @return the cost, or {@link #UNREACHABLE} if the last search found no path.
+     */
+    public int getPathCost() {
+        return pathCost;
+    }
+
+    /**
+     * Returns the number of steps of the last path found.
+     *
+     * @return the number of steps, 0 if there was no path or it starts where it ends.
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * Returns a step of the last path found.
+     *
+     * @param i the number of the step, from 0 to {@link #getPathLength()} - 1.
+     * @return the direction of the step.
+     */
+    public Direction getStep(int i) {
+        if (i < 0 || i >= pathLength) throw new IndexOutOfBoundsException(i);
+        return Direction.fromOrdinal(steps[i]);
+    }
+
+    /**
+     * Returns the row the last path found ends at.
+     *
+     * @return the row, or -1 if there was no path.
+     */
+    public int getEndRow() {
+        return (end < 0) ? -1 : end / engine.getSize();
+    }
+
+    /**
+     * Returns the column the last path found ends at.
+     *
+     * @return the column, or -1 if there was no path.
+     */
+    public int getEndCol() {
+        return (end < 0) ? -1 : end % engine.getSize();
+    }
+
+    /**
+     * Searches from a cell to a target cell, or to the nearest cell with an object of a kind.
+     * If there are guide cells, the priority of a cell is its cost plus the fewest steps to the closest
+     * guide times the lowest weight (A*), otherwise it is just its cost (Dijkstra's algorithm). Either way
+     * priorities only grow as cells are settled, and a queued cell is at most two of the highest weights
+     * above the current priority, so a ring of buckets that long, rounded up to a power of two, holds
+     * every queued cell.
+     *
+     * @param fromRow the row to start at.
+     * @param fromCol the column to start at.
+     * @param target  the index of the target cell, or -1 to look for a kind of object.
+     * @param type    the object type code to look for, if there is no target cell.
+     * @param weights the cost of entering each kind of cell.
+     * @return the cost of the path, or {@link #UNREACHABLE}.
+     */
+    private int search(int fromRow, int fromCol, int target, int type, Weights weights) {
+        Board board = engine.getBoard();
+        int size = board.getSize();
+        int ringMask = Integer.highestOneBit(2 * weights.max) * 2 - 1; // At least 2 * max + 1 buckets
+        prepare(size * size, ringMask + 1);
+        clearPath();
+
+        int from = fromRow * size + fromCol;
+        cost[from] = 0;
+        set(reached, from);
+        int priority = heuristic(fromRow, fromCol, weights.min);
+        push(priority & ringMask, from);
+        int queued = 1;
+
+        while (queued > 0) {
+            int bucket = priority & ringMask;
+            if (bucketSizes[bucket] == 0) {
+                priority++;
+                continue;
+            }
+            int cell = buckets[bucket][--bucketSizes[bucket]];
+            queued--;
+            int row = cell / size;
+            int col = cell - row * size;
+            if (isSet(settled, cell) || cost[cell] + heuristic(row, col, weights.min) != priority) {
+                continue; // Queued again at a lower cost
+            }
+            set(settled, cell);
+
+            if ((target < 0) ? board.getObject(cell) == type : cell == target) {
+                return finish(from, cell, size);
+            }
+
+            for (int direction = 0; direction < 4; direction++) {
+                int nextRow = row + STEP_ROWS[direction];
+                int nextCol = col + STEP_COLS[direction];
+                if (nextRow < 0 || nextRow >= size || nextCol < 0 || nextCol >= size) continue;
+                int next = nextRow * size + nextCol;
+                if (isSet(settled, next)) continue;
+                int weight = weights.costs[board.getObject(next)];
+                if (weight == Weights.BLOCKED) continue;
+
+                int nextCost = cost[cell] + weight;
+                if (!isSet(reached, next) || nextCost < cost[next]) {
+                    cost[next] = nextCost;
+                    via[next] = (byte) direction;
+                    set(reached, next);
+                    push((nextCost + heuristic(nextRow, nextCol, weights.min)) & ringMask, next);
+                    queued++;
+                }
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    /**
+     * Returns the least a path from a cell to the closest guide can cost, 0 if there are no guides.
+     */
+    private int heuristic(int row, int col, int minWeight) {
+        int distance = Integer.MAX_VALUE;
+        for (int i = 0; i < guides; i++) {
+            distance = Math.min(distance, Math.abs(row - guideRows[i]) + Math.abs(col - guideCols[i]));
+        }
+        return (guides == 0) ? 0 : minWeight * distance;
+    }
+
+    private void clearPath() {
+        pathCost = UNREACHABLE;
+        pathLength = 0;
+        end = -1;
+    }
+
+    /**
+     * Records the path that was found by following the steps back from its end.
+     */
+    private int finish(int from, int to, int size) {
+        int length = 0;
+        for (int cell = to; cell != from; length++) {
+            int direction = via[cell];
+            cell -= STEP_ROWS[direction] * size + STEP_COLS[direction];
+        }
+        if (steps.length < length) steps = new byte[Math.max(length, 2 * steps.length)];
+
+        int cell = to;
+        for (int i = length - 1; i >= 0; i--) {
+            int direction = via[cell];
+            steps[i] = (byte) DIRECTIONS[direction].ordinal();
+            cell -= STEP_ROWS[direction] * size + STEP_COLS[direction];
+        }
+        pathLength = length;
+        pathCost = cost[to];
+        end = to;
+        return pathCost;
+    }
+
+    /**
+     * Clears the bitsets and buckets, growing the buffers if the board or the ring is larger than before.
+     */
+    private void prepare(int cells, int ringSize) {
+        if (cost.length < cells) {
+            cost = new int[cells];
+            via = new byte[cells];
+            reached = new long[(cells + 63) >>> 6];
+            settled = new long[(cells + 63) >>> 6];
+        } else {
+            Arrays.fill(reached, 0, (cells + 63) >>> 6, 0L);
+            Arrays.fill(settled, 0, (cells + 63) >>> 6, 0L);
+        }
+        if (buckets.length < ringSize) {
+            int[][] grown = Arrays.copyOf(buckets, ringSize);
+            for (int i = buckets.length; i < ringSize; i++) {
+                grown[i] = new int[16];
+            }
+            buckets = grown;
+            bucketSizes = new int[ringSize];
+        } else {
+            Arrays.fill(bucketSizes, 0);
+        }
+    }
+
+    private void push(int bucket, int cell) {
+        if (bucketSizes[bucket] == buckets[bucket].length) {
+            buckets[bucket] = Arrays.copyOf(buckets[bucket], 2 * buckets[bucket].length);
+        }
+        buckets[bucket][bucketSizes[bucket]++] = cell;
+    }
+
+    private static boolean isSet(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+}
@@ -0,0 +1,83 @@
+package dungeon.engine;
+
+/**
+ * A small, fast and splittable random number generator (SplitMix64).
+ * Each engine owns its generators, so parallel games never contend on a shared Random,
+ * and the whole state is a single long that can be saved and restored to replay a game exactly.
+ * Not thread safe, use {@link #split()} to hand a generator to another thread.
+ */
+public class Rng {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static long seedUniquifier = System.nanoTime();
+
+    private long state;
+
+    /**
+     * Creates a generator that always produces the same numbers for the same seed.
+     *
+     * @param seed the seed.
+     */
+    public Rng(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Returns a seed that is different every time it is called.
+     *
+     * @return a new seed.
+     */
+    public static synchronized long randomSeed() {
+        seedUniquifier += GOLDEN_GAMMA;
+        return mix64(seedUniquifier ^ System.nanoTime());
+    }
+
+    /**
+     * Mixes the bits of a value so that nearby inputs give unrelated outputs.
+     * Useful to derive independent seeds, e.g. one per level, from a single game seed.
+     *
+     * @param z the value to mix.
+     * @return the mixed value.
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    /**
+     * Returns a random number between 0 (inclusive) and bound (exclusive).
+     *
+     * @param bound the upper bound, must be positive.
+     * @return the random number.
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * Returns a new generator that is independent of this one.
+     *
+     * @return the new generator.
+     */
+    public Rng split() {
+        return new Rng(nextLong());
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+}
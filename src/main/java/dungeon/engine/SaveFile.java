@@ -0,0 +1,340 @@
+package dungeon.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads and writes saved games.
+ * Games are saved in a compact binary format: a fixed header followed by the packed cells
+ * of the current level, exactly as the {@link Board} stores them. Saving is one channel write
+ * and loading copies the cells straight out of a memory-mapped buffer.
+ * The old text format ("Level: 1", "Cell (0,0): Entrance", ...) can still be read.
+ * A save is written to a temporary file that replaces the real one in a single rename,
+ * so a crash while saving never leaves a half written save behind.
+ * The async methods do the file I/O on a background thread, one save or load at a time.
+ */
+public final class SaveFile {
+
+    public static final Path DEFAULT_PATH = Path.of("ict221-mini-dungeon-usc-TP111/src/main/resources/data/savegame.dat");
+    public static final Path LEGACY_PATH = Path.of("ict221-mini-dungeon-usc-TP111/src/main/resources/data/savegame.txt");
+
+    private static final int MAGIC = 0x4D445356; // "MDSV"
+    private static final short VERSION = 3;
+    // magic, version, 7 ints (level, row, col, steps, hp, score, difficulty), 2 longs (seed, rng) and the size
+    private static final int HEADER_SIZE_V1 = 4 + 2 + 7 * 4 + 2 * 8 + 4;
+    // version 2 adds the number of levels, version 3 the difficulty the game was started with
+    private static final int HEADER_SIZE_V2 = HEADER_SIZE_V1 + 4;
+    private static final int HEADER_SIZE = HEADER_SIZE_V2 + 4;
+
+    // Runs saves, loads and move journal writes in the order they were requested, off the caller's thread
+    static final ExecutorService IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "save-file-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SaveFile() {
+    }
+
+    /**
+     * Returns the save file to load: the binary save file, or the old text one if there is no binary save.
+     *
+     * @return the path of the save file.
+     */
+    public static Path findSaveFile() {
+        return Files.exists(DEFAULT_PATH) ? DEFAULT_PATH : LEGACY_PATH;
+    }
+
+    /**
+     * Writes a saved game on the background thread.
+     * The state must be a snapshot, e.g. from {@link GameEngine#createSave()}, as the game goes on meanwhile.
+     *
+     * @param state the game to save.
+     * @param path  the file to write.
+     * @return a future that completes when the save is on disk, or completes exceptionally if it failed.
+     */
+    public static CompletableFuture<Void> writeAsync(SaveState state, Path path) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write(state, path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, IO);
+    }
+
+    /**
+     * Reads a saved game on the background thread.
+     *
+     * @param path the file to read.
+     * @return a future with the saved game (null if the file is empty), or that completes exceptionally if it failed.
+     */
+    public static CompletableFuture<SaveState> readAsync(Path path) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return read(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, IO);
+    }
+
+    /**
+     * Finds the save file with {@link #findSaveFile()} and reads it, both on the background thread.
+     *
+     * @return a future with the saved game (null if the file is empty), or that completes exceptionally if it failed.
+     */
+    public static CompletableFuture<SaveState> readAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return read(findSaveFile());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, IO);
+    }
+
+    /**
+     * Writes a saved game in the binary format, atomically replacing the file if it exists.
+     *
+     * @param state the game to save.
+     * @param path  the file to write.
+     * @throws IOException if the file can't be written.
+     */
+    public static void write(SaveState state, Path path) throws IOException {
+        writeAtomically(encode(state), path);
+    }
+
+    /**
+     * Writes a buffer to a temporary file and renames it over the target file in one step.
+     *
+     * @param buffer the bytes to write, from its position to its limit.
+     * @param path   the file to replace.
+     * @throws IOException if the file can't be written.
+     */
+    static void writeAtomically(ByteBuffer buffer, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true); // Make sure the new file is on disk before it replaces the old one
+        }
+
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Encodes a saved game in the binary format.
+     *
+     * @param state the game to encode.
+     * @return a buffer holding the encoded game, ready to be read or written.
+     */
+    static ByteBuffer encode(SaveState state) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + state.cells().length);
+        buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .putInt(state.level())
+                .putInt(state.playerRow())
+                .putInt(state.playerCol())
+                .putInt(state.steps())
+                .putInt(state.hp())
+                .putInt(state.score())
+                .putInt(state.difficulty())
+                .putInt(state.startDifficulty())
+                .putLong(state.seed())
+                .putLong(state.rngState())
+                .putInt(state.size())
+                .putInt(state.levels())
+                .put(state.cells())
+                .flip();
+        return buffer;
+    }
+
+    /**
+     * Reads a saved game in either the binary or the old text format.
+     *
+     * @param path the file to read.
+     * @return the saved game, or null if the file is empty.
+     * @throws IOException if the file can't be read or is not a saved game.
+     */
+    public static SaveState read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length == 0) return null;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (length < HEADER_SIZE_V1 || buffer.getInt(0) != MAGIC) {
+                return readLegacy(path);
+            }
+            return decode(buffer);
+        }
+    }
+
+    /**
+     * Decodes a saved game in the binary format, starting at the buffer's position.
+     * Afterwards the position is just past the saved game.
+     * Version 1 saves are from games with the default number of levels, and saves before version 3
+     * get the start difficulty from {@link #guessStartDifficulty(int, int)}.
+     *
+     * @param buffer the buffer to read from.
+     * @return the saved game.
+     * @throws IOException if the buffer doesn't hold a complete saved game.
+     */
+    static SaveState decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE_V1 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a saved game");
+        }
+        short version = buffer.getShort();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported save file version " + version);
+        }
+        int level = buffer.getInt();
+        int playerRow = buffer.getInt();
+        int playerCol = buffer.getInt();
+        int steps = buffer.getInt();
+        int hp = buffer.getInt();
+        int score = buffer.getInt();
+        int difficulty = buffer.getInt();
+        int startDifficulty = (version >= 3) ? buffer.getInt() : -1;
+        long seed = buffer.getLong();
+        long rngState = buffer.getLong();
+        int size = buffer.getInt();
+        int levels = (version == 1) ? GameEngine.DEFAULT_LEVELS : buffer.getInt();
+        if (startDifficulty < 0) {
+            startDifficulty = guessStartDifficulty(difficulty, level);
+        }
+        if (size < 0 || buffer.remaining() < size * size) {
+            throw new IOException("Save file is truncated");
+        }
+        byte[] cells = new byte[size * size];
+        buffer.get(cells);
+        return new SaveState(level, playerRow, playerCol, steps, hp, score, difficulty, startDifficulty, seed,
+                rngState, size, levels, cells);
+    }
+
+    /**
+     * Works out the difficulty a game was started with for saves that don't keep it: each level raised it by 2.
+     * This is too low if the difficulty was capped at 10 on the way, which is why newer saves keep it.
+     *
+     * @param difficulty the saved difficulty.
+     * @param level      the saved level, starting at 1.
+     * @return the likely start difficulty.
+     */
+    static int guessStartDifficulty(int difficulty, int level) {
+        return Math.max(0, difficulty - 2 * (level - 1));
+    }
+
+    /**
+     * Reads a saved game in the old text format.
+     * The text format has no floor tiles, so every cell gets the first floor tile,
+     * and files saved before seeds existed get a new random seed.
+     *
+     * @param path the file to read.
+     * @return the saved game, or null if the file is empty.
+     * @throws IOException if the file can't be read.
+     */
+    private static SaveState readLegacy(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+
+            // Check if the file is empty
+            if (reader.readLine() == null) {
+                return null;
+            }
+
+            int level = 1, playerRow = 0, playerCol = 0, steps = 0, hp = 0, score = 0, difficulty = 0;
+            long seed = Rng.randomSeed();
+            long rngState = Rng.randomSeed();
+            Board board = null;
+
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                switch (parts[0]) {
+                    case "Level:":
+                        level = Integer.parseInt(parts[1].trim());
+                        break;
+                    case "PlayerPos:":
+                        String[] pos = parts[1].trim().split(",");
+                        playerRow = Integer.parseInt(pos[0]);
+                        playerCol = Integer.parseInt(pos[1]);
+                        break;
+                    case "Steps:":
+                        steps = Integer.parseInt(parts[1].trim());
+                        break;
+                    case "HP:":
+                        hp = Integer.parseInt(parts[1].trim());
+                        break;
+                    case "Score:":
+                        score = Integer.parseInt(parts[1].trim());
+                        break;
+                    case "Difficulty:":
+                        difficulty = Integer.parseInt(parts[1].trim());
+                        break;
+                    case "Seed:":
+                        seed = Long.parseLong(parts[1].trim());
+                        break;
+                    case "Rng:":
+                        rngState = Long.parseLong(parts[1].trim());
+                        break;
+                    case "Cell":
+                        // Example: Cell (0,0): Entrance
+                        if (parts.length < 3) {
+                            System.err.println("Invalid cell format in save file: " + line);
+                            continue;
+                        }
+                        String[] cellCoords = parts[1].trim().replace("(", "").replace("):", "").split(",");
+                        int row = Integer.parseInt(cellCoords[0]);
+                        int col = Integer.parseInt(cellCoords[1]);
+                        if (board == null) {
+                            // Cells are saved row by row, so the size is known from the number of cells
+                            board = new Board(legacySize(path));
+                        }
+                        int objectType = Board.typeOf(parts[2].trim());
+                        if (objectType >= 0) {
+                            board.setObject(row, col, objectType);
+                        } else {
+                            System.err.println("Unknown game object in save file: " + line);
+                        }
+                        break;
+                    default:
+                        System.err.println("Unknown line in save file: " + line);
+                }
+            }
+
+            if (board == null) board = new Board(0);
+            return new SaveState(level, playerRow, playerCol, steps, hp, score, difficulty,
+                    guessStartDifficulty(difficulty, level), seed, rngState, board.getSize(), GameEngine.DEFAULT_LEVELS, board.toBytes());
+        }
+    }
+
+    /**
+     * Works out the board size of a text save file from its number of cell lines.
+     */
+    private static int legacySize(Path path) throws IOException {
+        try (var lines = Files.lines(path)) {
+            long cells = lines.filter(l -> l.startsWith("Cell ")).count();
+            return (int) Math.round(Math.sqrt(cells));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dungeon.engine;
+
+/**
+ * An immutable snapshot of everything needed to restore a saved game.
+ * The cells are the packed bytes of the current level's {@link Board}, including floor tiles.
+ *
+ * @param level      the current level, starting at 1.
+ * @param playerRow  the row of the player.
+ * @param playerCol  the column of the player.
+ * @param steps      the number of steps taken.
+ * @param hp         the player's HP.
+ * @param score      the score.
+ * @param difficulty      the difficulty.
+ * @param startDifficulty the difficulty the game was started with, before each level raised it.
+ * @param seed       the seed of the game.
+ * @param rngState   the state of the combat random number generator.
+ * @param size       the width and height of the board.
+ * @param levels     the number of levels in the dungeon.
+ * @param cells      the packed cells of the current level, row by row.
+ */
+public record SaveState(int level, int playerRow, int playerCol, int steps, int hp, int score,
+                        int difficulty, int startDifficulty, long seed, long rngState, int size, int levels, byte[] cells) {
+}
@@ -1,22 +1,90 @@
 package dungeon.engine;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
 /**
  * Represents a score entry in the game.
- * Each entry consists of a score and the date it was achieved.
+ * Each entry consists of a score and the date it was achieved, and for games recorded
+ * since the leaderboard kept them, the difficulty, levels cleared, steps used and the
+ * exact time the game ended. Older entries have -1 for the details they don't have.
  */
 public class ScoreEntry implements Comparable<ScoreEntry> {
     private final int score;
     private final String date;
+    private final int difficulty;
+    private final int levelsCleared;
+    private final int steps;
+    private final long timestamp;
 
     public ScoreEntry(int score, String date) {
+        this(score, date, -1, -1, -1, startOfDay(date));
+    }
+
+    public ScoreEntry(int score, String date, int difficulty, int levelsCleared, int steps, long timestamp) {
         this.score = score;
         this.date = date;
+        this.difficulty = difficulty;
+        this.levelsCleared = levelsCleared;
+        this.steps = steps;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Creates the entry of a game that ended at the given time, dated in the local time zone.
+     *
+     * @param score         the final score.
+     * @param difficulty    the difficulty the game was started with.
+     * @param levelsCleared the number of levels the player got out of.
+     * @param steps         the number of steps used.
+     * @param timestamp     the time the game ended, in milliseconds since the epoch.
+     * @return the entry.
+     */
+    public static ScoreEntry of(int score, int difficulty, int levelsCleared, int steps, long timestamp) {
+        String date = LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()).toString();
+        return new ScoreEntry(score, date, difficulty, levelsCleared, steps, timestamp);
     }
 
     public int getScore() {
         return score;
     }
 
+    public String getDate() {
+        return date;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public int getLevelsCleared() {
+        return levelsCleared;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the start of a day in the local time zone, for entries that only have a date.
+     *
+     * @param date the date, e.g. 2025-05-30.
+     * @return the time in milliseconds since the epoch, or 0 if the date can't be read.
+     */
+    static long startOfDay(String date) {
+        try {
+            return LocalDate.parse(date).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
     @Override
     public int compareTo(ScoreEntry other) {
         // Sort descending by score
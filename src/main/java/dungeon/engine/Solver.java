@@ -0,0 +1,698 @@
+package dungeon.engine;
+
+import dungeon.engine.gameobjects.RangedMutant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Works out the best expected score a player can get out of the current level, e.g. to grade players and check levels.
+ * The level is an expectimax tree: the player chooses where to go, and each ranged mutant in range hits with a
+ * 50% chance after every step. A level is worth the score when the player climbs its ladder, or -1 for dying or
+ * running out of steps, as the engine scores them.
+ * The player's choices are walks to an object that end by stepping onto it, along a shortest walk or the shortest
+ * walk no ranged mutant can hit, over empty and cleared cells. Walking over other objects is never needed, as
+ * those are walks of their own, and traps are only ever worth skipping. Hits on a walk only lower the player's HP,
+ * so all that matters is how many land, which is binomial.
+ * States (the player's cell, the objects left, HP and steps) are hashed with Zobrist keys into a bounded
+ * transposition table that threads share without locks, which keeps both a lower and an upper bound on each value,
+ * as most states are only searched against a window of values that matter.
+ * A state is never worth more than the best score of a relaxed level, where every object the steps left can reach
+ * is worth walking to and each ranged mutant attacks once, which cuts off most walks before they are searched.
+ * Walks that can't fail to score that much end the search straight away. The walks out of each state are cached
+ * per thread, and the first walks are searched in parallel against the likely best one.
+ * Levels where some risk can't be avoided take far more states; past a budget, states are valued as climbing out,
+ * so the result is the score of the best plan found.
+ */
+public final class Solver {
+
+    static final int DEFAULT_TABLE_BITS = 20; // Transposition table entries, as a power of two
+    static final long DEFAULT_MAX_STATES = 100_000; // Well under a second
+    static final int MAX_OBJECTS = 63; // One bit per object in a long
+    private static final int MAX_HITS = 64; // Longest binomial row, more than a walk on a supported board can have
+
+    private static final double[][] BINOMIAL = binomial(); // Chance of h hits out of k attacks
+    private static final double LOWEST = -1; // The score for dying or running out of steps
+    private static final double TOLERANCE = 1e-6; // Values are kept as floats, so are only this close
+    private static final int WALK_CACHE_SIZE = 1 << 14; // Walk lists each thread keeps
+
+    /**
+     * The result of solving a level.
+     *
+     * @param expectedScore the best expected score, -1 if the ladder can't be reached.
+     * @param targetRow     the row of the object to walk to first, -1 if there is none.
+     * @param targetCol     the column of the object to walk to first, -1 if there is none.
+     * @param states        the number of states searched.
+     * @param optimal       whether the search finished, so that no plan scores more; otherwise the score is what
+     *                      the best plan found scores.
+     */
+    public record Solution(double expectedScore, int targetRow, int targetCol, long states, boolean optimal) {
+    }
+
+    // The level, which doesn't change while solving
+    private final int size;
+    private final int[] neighbours; // Four per cell, -1 off the board
+    private final int[] objectAt; // Index of the object in each cell, -1 if none
+    private final int[] objectTypes;
+    private final long[] attackers; // Ranged mutant objects that can hit each cell
+    private final boolean[] trap;
+    private final long scoringObjects; // Objects worth score when used up
+    private final int ladder; // Cell of the ladder, -1 if none
+    private final int maxSteps;
+    private final int maxHp;
+    private final int startScore;
+    private final int[] objectCells;
+    private final int[][] apart; // Fewest steps from each object to each cell, around the traps
+    private final int[] toLadder; // Fewest steps from each cell to the ladder, around the traps
+    private final int relaxedGains; // Sizes of the relaxed level's table
+    private final int relaxedMelee;
+    private final int relaxedRanged;
+    private final int relaxedPotions;
+    private final double[] relaxed; // Values of the relaxed level, which bound the values of states
+
+    // Zobrist keys of each part of a state
+    private final long[] cellKeys;
+    private final long[] objectKeys;
+    private final long[] hpKeys;
+    private final long[] stepKeys;
+
+    // Transposition table: the lowest and highest a state's value can be, and its hash xor those so that a torn
+    // write never matches
+    private final long[] tableHashes;
+    private final long[] tableValues;
+    private final int tableMask;
+    private final AtomicLong states = new AtomicLong();
+    private long maxStates; // States searched before the rest are valued as climbing out straight away
+    private volatile boolean outOfStates;
+    private final ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+
+    private Solver(GameEngine engine, int tableBits) {
+        Board board = engine.getBoard();
+        size = board.getSize();
+        int cells = size * size;
+        int playerCell = engine.getPlayer().getRow() * size + engine.getPlayer().getCol();
+
+        neighbours = new int[cells * 4];
+        objectAt = new int[cells];
+        trap = new boolean[cells];
+        List<Integer> types = new ArrayList<>();
+        List<Integer> ranged = new ArrayList<>();
+        int ladderCell = -1;
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / size;
+            int col = cell % size;
+            neighbours[cell * 4] = (row > 0) ? cell - size : -1;
+            neighbours[cell * 4 + 1] = (row < size - 1) ? cell + size : -1;
+            neighbours[cell * 4 + 2] = (col > 0) ? cell - 1 : -1;
+            neighbours[cell * 4 + 3] = (col < size - 1) ? cell + 1 : -1;
+
+            objectAt[cell] = -1;
+            int type = board.getObject(cell);
+            if (type == Board.TRAP) {
+                trap[cell] = true;
+            } else if (type == Board.LADDER) {
+                ladderCell = cell;
+            } else if (type != Board.EMPTY && type != Board.ENTRANCE && cell != playerCell) {
+                // The object the player stands on was already used, and goes when the player steps off
+                if (types.size() == MAX_OBJECTS) {
+                    throw new IllegalArgumentException("Too many objects to solve, the most is " + MAX_OBJECTS);
+                }
+                objectAt[cell] = types.size();
+                if (type == Board.RANGED_MUTANT) ranged.add(cell);
+                types.add(type);
+            }
+        }
+        ladder = ladderCell;
+        objectTypes = types.stream().mapToInt(Integer::intValue).toArray();
+
+        long scoring = 0;
+        for (int i = 0; i < objectTypes.length; i++) {
+            if (objectTypes[i] != Board.HEALTH_POTION) scoring |= 1L << i;
+        }
+        scoringObjects = scoring;
+        attackers = new long[cells];
+        for (int cell : ranged) {
+            int row = cell / size;
+            int col = cell % size;
+            for (int d = -RangedMutant.ATTACK_RANGE; d <= RangedMutant.ATTACK_RANGE; d++) {
+                if (d == 0) continue;
+                if (row + d >= 0 && row + d < size) attackers[cell + d * size] |= 1L << objectAt[cell];
+                if (col + d >= 0 && col + d < size) attackers[cell + d] |= 1L << objectAt[cell];
+            }
+        }
+        maxSteps = engine.getMaxSteps();
+        maxHp = engine.getPlayerMaxHP();
+        startScore = engine.getScore();
+        objectCells = new int[objectTypes.length];
+        apart = new int[objectTypes.length][];
+        for (int cell = 0; cell < cells; cell++) {
+            if (objectAt[cell] >= 0) {
+                objectCells[objectAt[cell]] = cell;
+                apart[objectAt[cell]] = distances(cell);
+            }
+        }
+        toLadder = distances(ladder);
+        relaxedGains = Long.bitCount(scoringObjects) + 1;
+        relaxedMelee = count(Board.MELEE_MUTANT);
+        relaxedRanged = count(Board.RANGED_MUTANT);
+        relaxedPotions = count(Board.HEALTH_POTION);
+        relaxed = relax();
+
+        Rng rand = new Rng(0x2B992DDFA23249D6L); // Fixed keys, so that solving is repeatable
+        cellKeys = keys(rand, cells);
+        objectKeys = keys(rand, objectTypes.length);
+        hpKeys = keys(rand, maxHp + 1);
+        stepKeys = keys(rand, maxSteps + 1);
+
+        tableHashes = new long[1 << tableBits];
+        tableValues = new long[1 << tableBits];
+        tableMask = (1 << tableBits) - 1;
+    }
+
+    /**
+     * Solves the current level of a game from where the player is now, searching up to
+     * {@link #DEFAULT_MAX_STATES} states.
+     *
+     * @param engine the game, which is not changed.
+     * @return the best expected score and the first object to walk to.
+     * @throws IllegalArgumentException if the level has more than 63 objects that can be used up.
+     */
+    public static Solution solve(GameEngine engine) {
+        return solve(engine, DEFAULT_MAX_STATES, DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * Solves the current level of a game with a chosen budget. Levels where some risk can't be avoided can take
+     * far more states than levels where it can; past the budget, the rest of the level is valued as climbing out
+     * straight away.
+     *
+     * @param engine    the game, which is not changed.
+     * @param maxStates the most states to search.
+     * @param tableBits the number of transposition table entries as a power of two; each entry takes 16 bytes.
+     * @return the best expected score found and the first object to walk to.
+     * @throws IllegalArgumentException if the level has more than 63 objects that can be used up.
+     */
+    public static Solution solve(GameEngine engine, long maxStates, int tableBits) {
+        if (engine.isGameOver()) {
+            return new Solution(engine.getScore(), -1, -1, 0, true);
+        }
+        int start = engine.getPlayer().getRow() * engine.getSize() + engine.getPlayer().getCol();
+        return new Solver(engine, tableBits).solveFrom(start, engine.getPlayerHP(), engine.getCurrSteps(), maxStates);
+    }
+
+    /**
+     * Looks for a walk that can't fail to score the bound, which is quick as any chance of dying cuts a walk off,
+     * with half the budget. Failing that, searches the likely best first walk, then the others in parallel
+     * against its value.
+     */
+    private Solution solveFrom(int start, int hp, int steps, long budget) {
+        states.incrementAndGet();
+        Search search = searches.get();
+        int count = search.walks(0, start, 0L, steps, cellKeys[start]);
+        double bound = highest(start, 0L, hp, steps);
+        if (count == 0 || bound == LOWEST) {
+            return new Solution(LOWEST, -1, -1, states.get(), true);
+        }
+        long hash = cellKeys[start] ^ hpKeys[hp] ^ stepKeys[steps];
+        maxStates = budget / 2;
+        for (int i = 0; i < count; i++) {
+            long walk = search.walks[0][i];
+            if (search.walkValue(1, walk, start, 0L, hp, steps, hash, bound - TOLERANCE, bound) >= bound) {
+                return new Solution(bound, targetOf(walk) / size, targetOf(walk) % size, states.get(), true);
+            }
+        }
+        if (outOfStates) {
+            // Values past the budget are too low, so what the table knows of the values above them is wrong
+            Arrays.fill(tableHashes, 0);
+            Arrays.fill(tableValues, 0);
+            outOfStates = false;
+        }
+        maxStates = budget;
+
+        double first = search.walkValue(1, search.walks[0][0], start, 0L, hp, steps, hash, LOWEST, bound);
+
+        FirstWalk[] others = new FirstWalk[count - 1];
+        for (int i = 1; i < count; i++) {
+            others[i - 1] = new FirstWalk(search.walks[0][i], start, hp, steps, hash, first, bound);
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(others);
+            }
+        });
+
+        double best = first;
+        int target = targetOf(search.walks[0][0]);
+        for (FirstWalk walk : others) {
+            if (walk.value > best) {
+                best = walk.value;
+                target = targetOf(walk.walk);
+            }
+        }
+        return new Solution(best, target / size, target % size, states.get(), !outOfStates);
+    }
+
+    /**
+     * Searches one first walk with its own buffers.
+     */
+    private final class FirstWalk extends RecursiveAction {
+        private final long walk;
+        private final int start;
+        private final int hp;
+        private final int steps;
+        private final long hash;
+        private final double alpha;
+        private final double beta;
+        private double value;
+
+        FirstWalk(long walk, int start, int hp, int steps, long hash, double alpha, double beta) {
+            this.walk = walk;
+            this.start = start;
+            this.hp = hp;
+            this.steps = steps;
+            this.hash = hash;
+            this.alpha = alpha;
+            this.beta = beta;
+        }
+
+        @Override
+        protected void compute() {
+            value = searches.get().walkValue(1, walk, start, 0L, hp, steps, hash, alpha, beta);
+        }
+    }
+
+    /**
+     * The buffers of one thread's search. Walks and HP outcomes are kept per depth, as deeper states reuse the rest.
+     * Values are searched within a window: a value at or below alpha only needs to be known to be that low, and
+     * one at or above beta to be that high, which is all the state above can use.
+     */
+    private final class Search {
+        private final int[] distance = new int[size * size];
+        private final int[] hits = new int[size * size]; // Fewest hits on a shortest walk to each cell
+        private final int[] queue = new int[size * size];
+        private final int[] walkAt = new int[size * size]; // Where the walk to each target is in the list
+        private final int[] reached = new int[size * size]; // Breadth-first search that reached each cell
+        private final int[] found = new int[size * size]; // Breadth-first search that found each target
+        private int searchId;
+        private final long[][] walks = new long[objectTypes.length + 2][2 * (objectTypes.length + 1)];
+        private final double[] chances = new double[(objectTypes.length + 2) * (maxHp + 1)];
+        // Walks by the player's cell and the objects left, which many states share
+        private final long[] cachedKeys = new long[WALK_CACHE_SIZE];
+        private final long[][] cachedWalks = new long[WALK_CACHE_SIZE][];
+
+        /**
+         * Returns the best expected score from a state.
+         *
+         * @return the value; at most alpha if it is no higher, at least beta if it is no lower.
+         */
+        double value(int depth, int cell, long used, int hp, int steps, long hash, double alpha, double beta) {
+            // What is known of the value already
+            double lowest = LOWEST;
+            double highest = highest(cell, used, hp, steps);
+            if (highest <= alpha) return highest;
+            int slot = (int) hash & tableMask;
+            long stored = tableValues[slot];
+            if ((tableHashes[slot] ^ stored) == hash) {
+                lowest = Float.intBitsToFloat((int) (stored >>> 32));
+                highest = Math.min(highest, Float.intBitsToFloat((int) stored));
+                if (lowest >= beta || lowest == highest) return lowest;
+                if (highest <= alpha) return highest;
+                alpha = Math.max(alpha, lowest);
+                beta = Math.min(beta, highest);
+            }
+            if (states.get() >= maxStates) {
+                outOfStates = true;
+                return climb(depth, cell, used, hp, steps, hash);
+            }
+            states.incrementAndGet();
+
+            double best = LOWEST;
+            int count = walks(depth, cell, used, steps, hash ^ hpKeys[hp] ^ stepKeys[steps]);
+            for (int i = 0; i < count && best < beta; i++) {
+                double value = walkValue(depth + 1, walks[depth][i], cell, used, hp, steps, hash,
+                        Math.max(alpha, best), beta);
+                best = Math.max(best, value);
+            }
+
+            // A value at or below alpha is the most it can be, at or above beta the least, and between the two exact
+            if (best < beta) highest = Math.max(lowest, best);
+            if (best > alpha) lowest = Math.min(highest, best);
+            stored = ((long) Float.floatToIntBits((float) lowest) << 32)
+                    | (Float.floatToIntBits((float) highest) & 0xFFFFFFFFL);
+            tableHashes[slot] = hash ^ stored;
+            tableValues[slot] = stored;
+            return best;
+        }
+
+        /**
+         * Returns the expected score of walking to the ladder and climbing out, the best a state past the budget
+         * is known to be worth.
+         */
+        private double climb(int depth, int cell, long used, int hp, int steps, long hash) {
+            double best = LOWEST;
+            int count = walks(depth, cell, used, steps, hash ^ hpKeys[hp] ^ stepKeys[steps]);
+            for (int i = 0; i < count; i++) {
+                if (targetOf(walks[depth][i]) == ladder) {
+                    best = Math.max(best, walkValue(depth + 1, walks[depth][i], cell, used, hp, steps, hash, LOWEST,
+                            LOWEST));
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Returns the expected score of a walk: the hits on the way, stepping onto the object, the hits there,
+         * and the best play after that. Each outcome is searched within the window that could still move the
+         * walk's value across alpha or beta, given the outcomes searched so far and the bounds of the rest.
+         *
+         * @return the value; at most alpha if it is no higher, at least beta if it is no lower.
+         */
+        double walkValue(int depth, long walk, int cell, long used, int hp, int steps, long hash, double alpha,
+                         double beta) {
+            int target = targetOf(walk);
+            int walkHits = hitsOf(walk);
+            if (target == ladder) {
+                // Climbing leaves the level before any mutant can attack
+                double alive = 0;
+                for (int h = 0; h <= walkHits && hp - 2 * h > 0; h++) {
+                    alive += BINOMIAL[walkHits][h];
+                }
+                return alive * score(used) + (1 - alive) * LOWEST;
+            }
+            int object = objectAt[target];
+            int type = objectTypes[object];
+            long nextUsed = used | (1L << object);
+            int targetHits = Long.bitCount(attackers[target] & ~nextUsed);
+
+            // Chance of each HP left after the walk, stepping onto the object and the hits there
+            int base = depth * (maxHp + 1);
+            Arrays.fill(chances, base, base + maxHp + 1, 0);
+            double dead = 0;
+            for (int h = 0; h <= walkHits; h++) {
+                double p = BINOMIAL[walkHits][h];
+                int left = hp - 2 * h;
+                if (left > 0 && type == Board.HEALTH_POTION) left = Math.min(maxHp, left + 4);
+                if (left > 0 && type == Board.MELEE_MUTANT) left -= 2;
+                if (left <= 0) {
+                    dead += p;
+                    continue;
+                }
+                for (int h2 = 0; h2 <= targetHits; h2++) {
+                    double q = p * BINOMIAL[targetHits][h2];
+                    if (left - 2 * h2 <= 0) {
+                        dead += q;
+                    } else {
+                        chances[base + left - 2 * h2] += q;
+                    }
+                }
+            }
+
+            int most = maxHp;
+            while (most > 0 && chances[base + most] == 0) most--;
+            double ceiling = (most > 0) ? highest(target, nextUsed, most, steps + lengthOf(walk)) : LOWEST;
+            double known = dead * LOWEST; // Sum of the outcomes searched so far
+            double unknown = 1 - dead; // Chance of the outcomes not searched yet
+            int nextSteps = steps + lengthOf(walk);
+            long next = hash ^ cellKeys[cell] ^ cellKeys[target] ^ objectKeys[object] ^ hpKeys[hp]
+                    ^ stepKeys[steps] ^ stepKeys[nextSteps];
+            double value = known;
+            for (int left = most; left > 0; left--) {
+                double p = chances[base + left];
+                if (p == 0) continue;
+                if (known + unknown * ceiling <= alpha) {
+                    value = known + unknown * ceiling;
+                    break;
+                }
+                if (known + unknown * LOWEST >= beta) {
+                    value = known + unknown * LOWEST;
+                    break;
+                }
+
+                unknown -= p;
+                double low = (alpha - known - unknown * ceiling) / p;
+                double high = (beta - known - unknown * LOWEST) / p;
+                double outcome = value(depth, target, nextUsed, left, nextSteps, next ^ hpKeys[left],
+                        Math.max(LOWEST, low), Math.min(ceiling, high));
+                known += p * outcome;
+                value = known;
+                if (outcome <= low) {
+                    value = known + unknown * ceiling;
+                    break;
+                }
+                if (outcome >= high) {
+                    value = known + unknown * LOWEST;
+                    break;
+                }
+            }
+            return value;
+        }
+
+        /**
+         * Lists the walks from a state: to every object left and the ladder, a shortest walk with the fewest hits,
+         * and the shortest walk with no hits if that is a different one. Walks that would use up the last step
+         * are left out, as running out of steps ends the game.
+         *
+         * @return the number of walks, kept in walks[depth].
+         */
+        int walks(int depth, int cell, long used, int steps, long key) {
+            int slot = (int) key & (WALK_CACHE_SIZE - 1);
+            long[] found = cachedWalks[slot];
+            if (found == null || cachedKeys[slot] != key) {
+                int shortest = search(depth, 0, cell, used, false);
+                int count = search(depth, shortest, cell, used, true);
+
+                // Drop the safe walks that are also the shortest walk to their object
+                int unique = shortest;
+                for (int i = shortest; i < count; i++) {
+                    boolean same = false;
+                    for (int j = 0; j < shortest && !same; j++) {
+                        same = walks[depth][j] == walks[depth][i];
+                    }
+                    if (!same) walks[depth][unique++] = walks[depth][i];
+                }
+                Arrays.sort(walks[depth], 0, unique); // Likely the best walks first, so that more are cut off
+                found = Arrays.copyOf(walks[depth], unique);
+                cachedKeys[slot] = key;
+                cachedWalks[slot] = found;
+            }
+
+            // Drop the walks that are too long
+            int kept = 0;
+            for (long walk : found) {
+                if (steps + lengthOf(walk) < maxSteps) walks[depth][kept++] = walk;
+            }
+            return kept;
+        }
+
+        /**
+         * Searches breadth first from a cell over empty and cleared cells, adding a walk to every object (and the
+         * ladder) next to a cell it reaches.
+         *
+         * @param safe true to only walk over cells no ranged mutant can hit.
+         */
+        private int search(int depth, int first, int start, long used, boolean safe) {
+            long alive = ~used;
+            int id = ++searchId;
+            int head = 0;
+            int tail = 0;
+            reached[start] = id;
+            distance[start] = 0;
+            hits[start] = 0;
+            queue[tail++] = start;
+            int count = first;
+
+            while (head < tail) {
+                int cell = queue[head++];
+                int length = distance[cell] + 1;
+                for (int n = cell * 4; n < cell * 4 + 4; n++) {
+                    int next = neighbours[n];
+                    if (next < 0) continue;
+                    int object = objectAt[next];
+                    boolean target = next == ladder || (object >= 0 && (alive & (1L << object)) != 0);
+                    if (target) {
+                        count = add(depth, count, next, length, hits[cell], id);
+                        continue;
+                    }
+                    int exposure = Long.bitCount(attackers[next] & alive);
+                    if (trap[next] || (safe && exposure > 0)) continue;
+                    int walkHits = hits[cell] + exposure;
+                    if (reached[next] != id) {
+                        reached[next] = id;
+                        distance[next] = length;
+                        hits[next] = walkHits;
+                        queue[tail++] = next;
+                    } else if (distance[next] == length && walkHits < hits[next]) {
+                        hits[next] = walkHits; // Queued but not searched yet, as it is a step further out
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Adds a walk to an object, or keeps the less hit of two walks to the same object, as the first one found
+         * is already a shortest walk.
+         */
+        private int add(int depth, int count, int target, int length, int walkHits, int id) {
+            long walk = walk(target, length, Math.min(walkHits, MAX_HITS - 1));
+            if (found[target] != id) {
+                found[target] = id;
+                walkAt[target] = count;
+                walks[depth][count] = walk;
+                return count + 1;
+            }
+            if (length == lengthOf(walks[depth][walkAt[target]]) && walkHits < hitsOf(walks[depth][walkAt[target]])) {
+                walks[depth][walkAt[target]] = walk;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Returns the most a state can be worth: the relaxed value of the objects left that the player can still get
+     * to and then the ladder in the steps left. A ranged mutant next to the player can be killed without it
+     * attacking, so it counts as gold.
+     */
+    private double highest(int cell, long used, int hp, int steps) {
+        int stepsLeft = maxSteps - 1 - steps;
+        if (toLadder[cell] > stepsLeft) return LOWEST;
+        int free = 0;
+        int melee = 0;
+        int ranged = 0;
+        int potions = 0;
+        for (long left = ~used & ((1L << objectTypes.length) - 1); left != 0; left &= left - 1) {
+            int object = Long.numberOfTrailingZeros(left);
+            if (apart[object][cell] + toLadder[objectCells[object]] > stepsLeft) continue;
+            switch (objectTypes[object]) {
+                case Board.HEALTH_POTION -> potions++;
+                case Board.MELEE_MUTANT -> melee++;
+                case Board.RANGED_MUTANT -> {
+                    if (apart[object][cell] == 1) free++;
+                    else ranged++;
+                }
+                default -> free++;
+            }
+        }
+        int gained = Long.bitCount(used & scoringObjects) + free;
+        return relaxed[relaxedIndex(gained, melee, ranged, potions, hp)];
+    }
+
+    /**
+     * Solves the relaxed level, which is worth at least as much as any state: the player can use objects in any
+     * order without walking, and can climb out at any time. A melee mutant still costs 2 HP, and a ranged mutant
+     * gets one attack, as it always gets at least one at the cell next to it before the player steps onto it.
+     * Its values are kept by the objects gained, the melee mutants, ranged mutants and potions left, and HP.
+     */
+    private double[] relax() {
+        double[] values = new double[relaxedIndex(relaxedGains, 0, 0, 0, 0)];
+        for (int melee = 0; melee <= relaxedMelee; melee++) {
+            for (int ranged = 0; ranged <= relaxedRanged; ranged++) {
+                for (int potions = 0; potions <= relaxedPotions; potions++) {
+                    for (int gained = 0; gained < relaxedGains; gained++) {
+                        int next = Math.min(gained + 1, relaxedGains - 1); // Past the objects the level has
+                        for (int hp = 1; hp <= maxHp; hp++) {
+                            double best = startScore + 2 * gained;
+                            if (potions > 0) {
+                                best = Math.max(best, values[relaxedIndex(gained, melee, ranged, potions - 1,
+                                        Math.min(maxHp, hp + 4))]);
+                            }
+                            if (melee > 0 && hp > 2) {
+                                best = Math.max(best, values[relaxedIndex(next, melee - 1, ranged, potions, hp - 2)]);
+                            }
+                            if (ranged > 0) {
+                                double hit = (hp > 2) ? values[relaxedIndex(next, melee, ranged - 1, potions, hp - 2)]
+                                        : LOWEST;
+                                double miss = values[relaxedIndex(next, melee, ranged - 1, potions, hp)];
+                                best = Math.max(best, (hit + miss) / 2);
+                            }
+                            values[relaxedIndex(gained, melee, ranged, potions, hp)] = best;
+                        }
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    private int relaxedIndex(int gained, int melee, int ranged, int potions, int hp) {
+        return (((gained * (relaxedMelee + 1) + melee) * (relaxedRanged + 1) + ranged) * (relaxedPotions + 1)
+                + potions) * (maxHp + 1) + hp;
+    }
+
+    private int count(int type) {
+        return (int) Arrays.stream(objectTypes).filter(t -> t == type).count();
+    }
+
+    /**
+     * Returns the fewest steps from a cell to every cell, walking around traps but through anything else.
+     */
+    private int[] distances(int from) {
+        int[] distance = new int[size * size];
+        Arrays.fill(distance, Integer.MAX_VALUE / 2);
+        if (from < 0) return distance;
+        int[] queue = new int[size * size];
+        int head = 0;
+        int tail = 0;
+        distance[from] = 0;
+        queue[tail++] = from;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int n = cell * 4; n < cell * 4 + 4; n++) {
+                int next = neighbours[n];
+                if (next < 0 || distance[next] <= distance[cell] + 1) continue;
+                distance[next] = distance[cell] + 1;
+                if (!trap[next]) queue[tail++] = next; // The player can stand on a trap, but never walks over one
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Returns the score with some objects used up.
+     */
+    private int score(long used) {
+        return startScore + 2 * Long.bitCount(used & scoringObjects);
+    }
+
+    // A walk packs the hits on the way, its length and the target cell, so that walks sort by fewest hits then length
+    private static long walk(int target, int length, int walkHits) {
+        return ((long) walkHits << 48) | ((long) length << 32) | target;
+    }
+
+    private static int targetOf(long walk) {
+        return (int) walk;
+    }
+
+    private static int lengthOf(long walk) {
+        return (int) (walk >>> 32) & 0xFFFF;
+    }
+
+    private static int hitsOf(long walk) {
+        return (int) (walk >>> 48);
+    }
+
+    private static long[] keys(Rng rand, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = rand.nextLong();
+        }
+        return keys;
+    }
+
+    private static double[][] binomial() {
+        double[][] table = new double[MAX_HITS][];
+        for (int k = 0; k < MAX_HITS; k++) {
+            table[k] = new double[k + 1];
+            table[k][0] = Math.pow(0.5, k);
+            for (int h = 1; h <= k; h++) {
+                table[k][h] = table[k][h - 1] * (k - h + 1) / h;
+            }
+        }
+        return table;
+    }
+}
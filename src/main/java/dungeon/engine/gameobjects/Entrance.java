@@ -1,5 +1,7 @@
 package dungeon.engine.gameobjects;
 
+import dungeon.engine.Board;
+import dungeon.engine.EventType;
 import dungeon.engine.GameEngine;
 
 /**
@@ -15,6 +17,6 @@ public class Entrance extends GameObject{
     @Override
     public void onPlayerEnter(GameEngine engine) {
         // Logic for when the player enters the entrance again
-        engine.printEvent("This is the entrance.", GameEngine.BLUE);
+        engine.publish(EventType.ENTRANCE, Board.ENTRANCE, 0);
     }
 }
@@ -1,5 +1,7 @@
 package dungeon.engine.gameobjects;
 
+import dungeon.engine.Board;
+import dungeon.engine.EventType;
 import dungeon.engine.GameEngine;
 
 /**
@@ -16,7 +18,7 @@ public class Gold extends GameObject{
     @Override
     public void onPlayerEnter(GameEngine engine) {
         // Logic for when the player picks up the gold
-        engine.printEvent("You picked up a gold coin! You receive " + SCORE + " score.", GameEngine.YELLOW);
+        engine.publish(EventType.PICKUP, Board.GOLD, SCORE);
         engine.setScore(engine.getScore() + SCORE); // Increase player's score by score value
     }
 }
@@ -1,5 +1,7 @@
 package dungeon.engine.gameobjects;
 
+import dungeon.engine.Board;
+import dungeon.engine.EventType;
 import dungeon.engine.GameEngine;
 
 /**
@@ -16,7 +18,7 @@ public class HealthPotion extends GameObject{
     @Override
     public void onPlayerEnter(GameEngine engine) {
         // Logic for when the player picks up the health potion
-        engine.printEvent("You picked up a health potion! You heal " + HEAL + " HP.", GameEngine.GREEN);
+        engine.publish(EventType.PICKUP, Board.HEALTH_POTION, HEAL);
         engine.setPlayerHP(engine.getPlayerHP() + HEAL); // Increase player's HP by health potion heal
     }
 }
@@ -1,5 +1,7 @@
 package dungeon.engine.gameobjects;
 
+import dungeon.engine.Board;
+import dungeon.engine.EventType;
 import dungeon.engine.GameEngine;
 
 /**
@@ -17,10 +19,10 @@ public class MeleeMutant extends GameObject{
     @Override
     public void onPlayerEnter(GameEngine engine) {
         // Logic for when the player kills the melee mutant
-        engine.printEvent("You take " + DAMAGE + " damage from a melee mutant.", GameEngine.RED);
+        engine.publish(EventType.DAMAGE, Board.MELEE_MUTANT, DAMAGE);
         engine.setPlayerHP(engine.getPlayerHP() - DAMAGE); // Reduce player's HP by mutant damage
 
-        engine.printEvent("You killed the melee mutant! You receive " + SCORE + " score.", GameEngine.GREEN);
+        engine.publish(EventType.KILL, Board.MELEE_MUTANT, SCORE);
         engine.setScore(engine.getScore() + SCORE); // Increase player's score by score value
     }
 }
@@ -1,17 +1,16 @@
 package dungeon.engine.gameobjects;
 
+import dungeon.engine.Board;
+import dungeon.engine.EventType;
 import dungeon.engine.GameEngine;
 
-import java.util.Random;
-
 /**
  * Represents a ranged mutant in the dungeon.
  * The ranged mutant can attack the player from a distance.
  * When killed, it increases the player's score.
  */
 public class RangedMutant extends GameObject{
-    private static final Random rand = new Random();
-    private static final int ATTACK_RANGE = 2; // Ranged attack range
+    public static final int ATTACK_RANGE = 2; // Ranged attack range
     private static final int DAMAGE = 2; // Damage dealt by the ranged mutant
     private static final int SCORE = 2; // Score for killing the ranged mutant
 
@@ -22,7 +21,7 @@ public class RangedMutant extends GameObject{
     @Override
     public void onPlayerEnter(GameEngine engine) {
         // Logic for when the player kills the ranged mutant
-        engine.printEvent("You killed the ranged mutant! You receive " + SCORE + " score.", GameEngine.GREEN);
+        engine.publish(EventType.KILL, Board.RANGED_MUTANT, SCORE);
         engine.setScore(engine.getScore() + SCORE); // Increase player's score by score value
     }
 
@@ -36,11 +35,11 @@ public class RangedMutant extends GameObject{
                         || (myCol == playerCol && Math.abs(myRow - playerRow) <= ATTACK_RANGE && Math.abs(myRow - playerRow) > 0);
 
         if (canAttack) {
-            if(rand.nextBoolean()) {
-                engine.printEvent("A ranged mutant hits you! You take " + DAMAGE + " damage.", GameEngine.RED);
+            if(engine.getRng().nextBoolean()) {
+                engine.publish(EventType.DAMAGE, Board.RANGED_MUTANT, DAMAGE);
                 engine.setPlayerHP(engine.getPlayerHP() - DAMAGE); // Implement this method in GameEngine
             } else {
-                engine.printEvent("A ranged mutant tried to attack you but missed!", GameEngine.GREEN);
+                engine.publish(EventType.MISS, Board.RANGED_MUTANT, 0);
             }
         }
     }
@@ -1,5 +1,7 @@
 package dungeon.engine.gameobjects;
 
+import dungeon.engine.Board;
+import dungeon.engine.EventType;
 import dungeon.engine.GameEngine;
 
 /**
@@ -15,7 +17,7 @@ public class Trap extends GameObject{
     @Override
     public void onPlayerEnter(GameEngine engine) {
         // Logic for when the player enters the trap
-        engine.printEvent("You stepped on a trap! You take " + DAMAGE + " damage.", GameEngine.RED);
+        engine.publish(EventType.DAMAGE, Board.TRAP, DAMAGE);
         engine.setPlayerHP(engine.getPlayerHP() - DAMAGE); // Reduce player's HP by trap damage
     }
 }
@@ -0,0 +1,208 @@
+package dungeon.gui;
+
+import dungeon.engine.Board;
+import dungeon.engine.GameEngine;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Draws the dungeon onto a single canvas, for boards too large for one node per cell.
+ * The canvas is a viewport onto the dungeon that follows the player and can also be scrolled
+ * with the mouse wheel. Only the tiles inside the viewport are ever painted, and a move only
+ * repaints the cells that changed unless the viewport has to scroll.
+ */
+class CanvasMapRenderer implements MapRenderer {
+
+    private static final int TILE = Sprites.TILE_SIZE;
+    private static final int MARGIN = 2; // Tiles kept between the player and the edge of the viewport
+
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final Sprites sprites;
+    private final int columns; // Number of tiles that fit across the viewport
+    private final int rows; // Number of tiles that fit down the viewport
+
+    private GameEngine engine;
+    private int top = -1; // Board row drawn in the top row of the viewport, -1 is the wall
+    private int left = -1; // Board column drawn in the left column of the viewport, -1 is the wall
+
+    /**
+     * Creates a canvas renderer.
+     *
+     * @param sprites the sprites to draw with
+     * @param width   the width of the viewport in pixels
+     * @param height  the height of the viewport in pixels
+     */
+    CanvasMapRenderer(Sprites sprites, double width, double height) {
+        this.sprites = sprites;
+        this.canvas = new Canvas(width, height);
+        this.gc = canvas.getGraphicsContext2D();
+        this.columns = (int) Math.ceil(width / TILE);
+        this.rows = (int) Math.ceil(height / TILE);
+
+        // Scroll the viewport with the mouse wheel, shift scrolls sideways
+        canvas.setOnScroll(event -> {
+            if (engine == null) return;
+            int step = event.getDeltaY() > 0 ? -1 : 1;
+            if (event.isShiftDown()) {
+                scrollTo(top, left + step);
+            } else {
+                scrollTo(top + step, left);
+            }
+        });
+    }
+
+    @Override
+    public Node getNode() {
+        return canvas;
+    }
+
+    @Override
+    public void drawLevel(GameEngine engine) {
+        this.engine = engine;
+        followPlayer();
+        drawViewport();
+    }
+
+    @Override
+    public void drawCell(GameEngine engine, int row, int col) {
+        drawTile(row, col);
+    }
+
+    @Override
+    public void drawPlayer(GameEngine engine, int fromRow, int fromCol) {
+        if (followPlayer()) {
+            drawViewport();
+        } else {
+            drawTile(fromRow, fromCol);
+            drawTile(engine.getPlayer().getRow(), engine.getPlayer().getCol());
+        }
+    }
+
+    /**
+     * Scrolls the viewport so the player is at least {@link #MARGIN} tiles away from its edges.
+     *
+     * @return true if the viewport moved and has to be repainted
+     */
+    private boolean followPlayer() {
+        int row = engine.getPlayer().getRow();
+        int col = engine.getPlayer().getCol();
+        int newTop = top;
+        int newLeft = left;
+        if (row - MARGIN < newTop) newTop = row - MARGIN;
+        if (row + MARGIN >= newTop + rows) newTop = row + MARGIN - rows + 1;
+        if (col - MARGIN < newLeft) newLeft = col - MARGIN;
+        if (col + MARGIN >= newLeft + columns) newLeft = col + MARGIN - columns + 1;
+        return moveViewport(newTop, newLeft);
+    }
+
+    /**
+     * Scrolls the viewport to a new position and repaints it if it moved.
+     *
+     * @param newTop  the board row to show in the top row
+     * @param newLeft the board column to show in the left column
+     */
+    private void scrollTo(int newTop, int newLeft) {
+        if (moveViewport(newTop, newLeft)) {
+            drawViewport();
+        }
+    }
+
+    /**
+     * Moves the viewport, keeping it within the board and its walls.
+     *
+     * @return true if the viewport moved
+     */
+    private boolean moveViewport(int newTop, int newLeft) {
+        int size = engine.getSize();
+        newTop = Math.max(-1, Math.min(newTop, size + 1 - rows));
+        newLeft = Math.max(-1, Math.min(newLeft, size + 1 - columns));
+        if (newTop == top && newLeft == left) return false;
+        top = newTop;
+        left = newLeft;
+        return true;
+    }
+
+    /**
+     * Paints every tile inside the viewport.
+     */
+    private void drawViewport() {
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        for (int row = top; row < top + rows; row++) {
+            for (int col = left; col < left + columns; col++) {
+                drawTile(row, col);
+            }
+        }
+    }
+
+    /**
+     * Paints a single tile (wall, or floor with its object and the player) if it is inside the viewport.
+     *
+     * @param row the board row, -1 and size are the walls
+     * @param col the board column, -1 and size are the walls
+     */
+    private void drawTile(int row, int col) {
+        if (row < top || row >= top + rows || col < left || col >= left + columns) return;
+
+        int size = engine.getSize();
+        double x = (col - left) * TILE;
+        double y = (row - top) * TILE;
+
+        if (row < 0 || col < 0 || row >= size || col >= size) {
+            drawWall(row, col, size, x, y);
+            return;
+        }
+
+        Board map = engine.getBoard();
+        draw(Sprites.floor(map.getFloorTile(row, col)), x, y);
+        int object = Sprites.object(map.getObject(row, col));
+        if (object >= 0) {
+            draw(object, x, y);
+        }
+        if (row == engine.getPlayer().getRow() && col == engine.getPlayer().getCol()) {
+            draw(Sprites.PLAYER, x, y);
+        }
+    }
+
+    /**
+     * Copies one sprite from the atlas onto the canvas.
+     *
+     * @param sprite the sprite index
+     * @param x      the x position on the canvas
+     * @param y      the y position on the canvas
+     */
+    private void draw(int sprite, double x, double y) {
+        Rectangle2D region = sprites.region(sprite);
+        gc.drawImage(sprites.atlas(), region.getMinX(), region.getMinY(), TILE, TILE, x, y, TILE, TILE);
+    }
+
+    /**
+     * Paints the wall tile around the board, matching the walls of the grid renderer.
+     */
+    private void drawWall(int row, int col, int size, double x, double y) {
+        if (row < 0 && col >= 0 && col < size) {
+            draw(Sprites.TOP_WALL, x, y);
+        } else if (col < 0 && row < size) {
+            draw(Sprites.SIDE_WALL, x, y);
+        } else if (col >= size && row < size) {
+            // The right wall is the side wall turned around
+            gc.save();
+            gc.translate(x + TILE, y + TILE);
+            gc.rotate(180);
+            draw(Sprites.SIDE_WALL, 0, 0);
+            gc.restore();
+        } else if (row >= size) {
+            if (col < 0) {
+                draw(Sprites.LEFT_CORNER_WALL, x, y);
+            } else if (col >= size) {
+                draw(Sprites.RIGHT_CORNER_WALL, x, y);
+            } else {
+                draw(Sprites.BOTTOM_WALL, x, y);
+            }
+        } else {
+            gc.clearRect(x, y, TILE, TILE);
+        }
+    }
+}
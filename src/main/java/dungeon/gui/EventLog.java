@@ -0,0 +1,70 @@
+package dungeon.gui;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * A bounded, newest-first list of event log lines for a ListView.
+ * Lines are kept in a ring buffer, so adding one is O(1) and once the log is full
+ * the oldest line is dropped. The ListView only creates cells for the visible rows.
+ */
+class EventLog extends ObservableListBase<String> {
+
+    public static final int DEFAULT_CAPACITY = 200;
+
+    private final String[] ring;
+    private int newest = -1; // Index of the newest line in the ring
+    private int size = 0;
+
+    EventLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty event log.
+     *
+     * @param capacity the number of lines to keep
+     */
+    EventLog(int capacity) {
+        ring = new String[capacity];
+    }
+
+    /**
+     * Adds a line to the top of the log, dropping the oldest line if the log is full.
+     *
+     * @param line the line to add
+     */
+    void push(String line) {
+        beginChange();
+        try {
+            if (size == ring.length) {
+                nextRemove(size - 1, get(size - 1));
+                size--;
+            }
+            newest = (newest + 1) % ring.length;
+            ring[newest] = line;
+            size++;
+            nextAdd(0, 1);
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Returns a line of the log, the newest line is at index 0.
+     *
+     * @param index the index of the line
+     * @return the line
+     */
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return ring[(newest - index + ring.length) % ring.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
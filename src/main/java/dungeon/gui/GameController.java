@@ -1,28 +1,36 @@
 package dungeon.gui;
 
-import dungeon.engine.Cell;
+import dungeon.engine.Board;
+import dungeon.engine.DifficultyTable;
+import dungeon.engine.EventType;
 import dungeon.engine.GameEngine;
+import dungeon.engine.GameEvent;
+import dungeon.engine.GameListener;
+import dungeon.engine.Leaderboard;
+import dungeon.engine.MoveJournal;
+import dungeon.engine.Rng;
+import dungeon.engine.SaveFile;
+import dungeon.engine.SaveState;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.ProgressBar;
-import javafx.scene.control.TextArea;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.util.ArrayList;
 
 /**
  * Controls the game GUI and handles user interactions.
  * It manages the game state, updates the UI, and responds to player actions.
  */
-public class GameController {
+public class GameController implements GameListener {
     // UI Elements
     @FXML
     private GridPane gridPane;
@@ -64,75 +72,96 @@ public class GameController {
     private Label healthBarText;
 
     @FXML
-    private TextArea eventLog;
+    private ListView<String> eventLog;
 
     @FXML
     private Label endTitle;
 
     private GameEngine engine;
-    private Cell[][] map;
+    private MapRenderer renderer; // Draws the dungeon, a grid of nodes or a canvas
+    private final EventLog eventLines = new EventLog(); // The most recent events, newest first
     private static final int SIZE = 10; // Size of the dungeon
 
-    // Sprites
-    private final ArrayList<Image> floorTileImages = new ArrayList<>();
-    private final Image topWall = loadImage("images/topWall.png");
-    private final Image sideWall = loadImage("images/sideWall.png");
-    private final Image bottomWall = loadImage("images/bottomWall.png");
-    private final Image leftCornerWall = loadImage("images/leftCornerWall.png");
-    private final Image rightCornerWall = loadImage("images/rightCornerWall.png");
-
-    private final Image player = loadImage("images/player.png");
-    private final Image melee = loadImage("images/melee.png");
-    private final Image ranged = loadImage("images/ranged.png");
-    private final Image entrance = loadImage("images/entrance.png");
-    private final Image ladder = loadImage("images/ladder.png");
-    private final Image trap = loadImage("images/trap.png");
-    private final Image gold = loadImage("images/gold.png");
-    private final Image potion = loadImage("images/potion.png");
-
     /**
-     * Loads an image from the specified filename.
-     * The image is set to a fixed size of 48x48 pixels.
+     * Initializes the game controller and sets up the initial game state.
+     * This method is called when the game starts, setting up the UI and loading necessary resources.
      *
-     * @param filename the name of the image file to load
-     * @return the loaded Image object
+     * @param difficulty the difficulty level of the game
      */
-    private Image loadImage(String filename) {
-        return new Image(filename, 48, 48, false, false);
+    public void startGame(int difficulty) {
+        startGame(difficulty, SIZE, false);
     }
 
     /**
-     * Gets the list of floor tile images used in the game.
+     * Initializes the game controller with a chosen board size and renderer.
+     * The canvas renderer only paints the visible part of the dungeon and scrolls with the player,
+     * so it should be used for boards that don't fit in the window.
      *
-     * @return an ArrayList of Image objects representing floor tiles
+     * @param difficulty the difficulty level of the game
+     * @param size       the width and height of the dungeon
+     * @param useCanvas  true to draw the dungeon on a canvas, false to use the grid of image views
      */
-    public ArrayList<Image> getFloorTileImages() {
-        return floorTileImages;
+    public void startGame(int difficulty, int size, boolean useCanvas) {
+        startGame(difficulty, size, GameEngine.DEFAULT_LEVELS, useCanvas);
     }
 
     /**
-     * Gets the event log TextArea where game events are displayed.
+     * Initializes the game controller with a chosen board size, number of levels and renderer.
      *
-     * @return the TextArea used for logging game events
+     * @param difficulty the difficulty level of the game
+     * @param size       the width and height of the dungeon
+     * @param levels     the number of levels to escape
+     * @param useCanvas  true to draw the dungeon on a canvas, false to use the grid of image views
      */
-    public TextArea getEventLog() {
-        return eventLog;
+    public void startGame(int difficulty, int size, int levels, boolean useCanvas) {
+        engine = new GameEngine(size, difficulty, this, Rng.randomSeed(), levels, DifficultyTable.getDefault());
+        engine.setLeaderboard(Leaderboard.getDefault());
+        MoveJournal.start(engine, MoveJournal.DEFAULT_PATH); // Autosaves every move
+        showGame(useCanvas);
     }
 
     /**
-     * Initializes the game controller and sets up the initial game state.
-     * This method is called when the game starts, setting up the UI and loading necessary resources.
+     * Initializes the game controller with the unfinished game in the move journal.
+     * The game is replayed from the journal and continues to be journaled.
      *
-     * @param difficulty the difficulty level of the game
+     * @param useCanvas true to draw the dungeon on a canvas, false to use the grid of image views
+     * @throws IOException if the journal can't be read
      */
-    public void startGame(int difficulty) {
-        floorTileImages.add(loadImage("images/floor1.png"));
-        floorTileImages.add(loadImage("images/floor2.png"));
-        floorTileImages.add(loadImage("images/floor3.png"));
-        floorTileImages.add(loadImage("images/floor4.png"));
+    public void resumeGame(boolean useCanvas) throws IOException {
+        engine = MoveJournal.resume(MoveJournal.DEFAULT_PATH, DifficultyTable.getDefault());
+        engine.setListener(this);
+        engine.setLeaderboard(Leaderboard.getDefault());
+        // The grid renderer only fits the default size
+        showGame(useCanvas || engine.getSize() > SIZE);
+    }
+
+    /**
+     * Writes any moves still buffered in the journal, e.g. when the game window is closed.
+     */
+    public void closeJournal() {
+        if (engine != null && engine.getJournal() != null) {
+            engine.getJournal().close();
+        }
+    }
 
-        engine = new GameEngine(SIZE, difficulty, this);
-        map = engine.getMap();
+    /**
+     * Sets up the renderer and the buttons for the current engine.
+     *
+     * @param useCanvas true to draw the dungeon on a canvas, false to use the grid of image views
+     */
+    private void showGame(boolean useCanvas) {
+        Sprites sprites = Sprites.get();
+        eventLog.setItems(eventLines);
+        int size = engine.getSize();
+
+        if (useCanvas) {
+            // Swap the grid pane for a canvas of the same size as the map area
+            StackPane mapArea = (StackPane) gridPane.getParent();
+            renderer = new CanvasMapRenderer(sprites, mapArea.getPrefWidth(), mapArea.getPrefHeight());
+            mapArea.getChildren().set(mapArea.getChildren().indexOf(gridPane), renderer.getNode());
+        } else {
+            renderer = new GridMapRenderer(gridPane, sprites, size);
+        }
 
         btUp.setOnMouseClicked(e -> move(true, true));
 
@@ -158,21 +187,55 @@ public class GameController {
 
         btSave.setOnMouseClicked(event -> {
             if (!engine.isGameOver()) {
-                engine.saveGame();
+                // Snapshot the game now, the file is written in the background
+                SaveFile.writeAsync(engine.createSave(), SaveFile.DEFAULT_PATH).exceptionally(e -> {
+                    System.err.println("Error saving game: " + e.getMessage());
+                    return null;
+                });
             }
         });
 
         btLoad.setOnMouseClicked(event -> {
             if(!engine.isGameOver()) {
-                engine.loadGame();
-                updateGUI();
+                // Read the file in the background and apply it on the FX thread
+                SaveFile.readAsync().whenComplete((save, error) ->
+                        Platform.runLater(() -> applyLoadedGame(save, error)));
             }
         });
 
-        updateGUI();
+        renderer.drawLevel(engine);
+        updateText();
 
     }
 
+    /**
+     * Applies a game that was loaded in the background.
+     * Must be called on the FX thread.
+     *
+     * The player is told when the game couldn't be loaded, whether the save file was empty or unreadable.
+     *
+     * @param save  the loaded game, null if the save file was empty
+     * @param error the error that stopped the game from loading, or null
+     */
+    private void applyLoadedGame(SaveState save, Throwable error) {
+        if (engine.isGameOver()) return;
+
+        if (error != null) {
+            System.err.println("Error loading save file: " + error.getMessage());
+            engine.publish(EventType.LOAD_FAILED, Board.EMPTY, 0);
+        } else if (save == null) {
+            engine.publish(EventType.LOAD_FAILED, Board.EMPTY, 0);
+        } else {
+            try {
+                engine.applySave(save); // Redraws the level through onLevelChanged
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error loading save file: " + e.getMessage());
+                engine.publish(EventType.LOAD_FAILED, Board.EMPTY, 0);
+            }
+        }
+        updateText();
+    }
+
     /**
      * Handles player movement based on the direction and type of movement (vertical or horizontal).
      * This method is called when the respective buttons are clicked.
@@ -182,102 +245,43 @@ public class GameController {
      */
     private void move(boolean vertical, boolean upRight) {
         if (!engine.isGameOver()) {
-            engine.movePlayer(vertical, upRight);
-            updateGUI();
+            engine.movePlayer(vertical, upRight); // Changed cells are redrawn through the listener methods
+            updateText();
         }
     }
 
     /**
-     * Updates the GUI to reflect the current state of the game.
-     * This method is called after every move to refresh the map and game objects.
+     * Redraws the object in a single cell after the engine changed it.
+     *
+     * @param engine the engine whose board changed
+     * @param row    the row of the cell
+     * @param col    the column of the cell
      */
-    private void updateGUI() {
-        //Clear old GUI grid pane
-        gridPane.getChildren().clear();
-        map = engine.getMap();
-
-        // Regenerate map background and game objects
-        generateMapBackground();
-        generateGameObjects();
-        updateText();
+    @Override
+    public void onCellChanged(GameEngine engine, int row, int col) {
+        renderer.drawCell(engine, row, col);
     }
 
     /**
-     * Generates the background of the map with walls and floor tiles.
-     * The grid is expanded by one cell on each side to accommodate walls.
+     * Moves the player sprite to the player's new cell.
+     *
+     * @param engine  the engine whose player moved
+     * @param fromRow the row the player left
+     * @param fromCol the column the player left
      */
-    private void generateMapBackground() {
-        for (int y = -1; y < engine.getSize() + 1; y++) {
-            for (int x = -1; x < engine.getSize() + 1; x++) {
-
-                Cell cell;
-                ImageView tile;
-
-                boolean inBounds = x >= 0 && x < engine.getSize() && y >= 0 && y < engine.getSize();
-                if (inBounds) {
-                    cell = engine.getMap()[x][y];
-                } else {
-                    cell = new Cell();
-                }
-
-                cell.setMinSize(48, 48);
-
-                if (y < 0 && x >= 0 && x < engine.getSize()) {
-                    tile = new ImageView(topWall);
-                } else if (x < 0 && y < engine.getSize()) {
-                    tile = new ImageView(sideWall);
-                } else if (x >= engine.getSize() && y < engine.getSize()) {
-                    tile = new ImageView(sideWall);
-                    tile.setRotate(180);
-                } else if (y >= engine.getSize()) {
-                    if (x < 0) {
-                        tile = new ImageView(leftCornerWall);
-                    } else if (x >= engine.getSize()) {
-                        tile = new ImageView(rightCornerWall);
-                    } else {
-                        tile = new ImageView(bottomWall);
-                    }
-                } else {
-                    tile = new ImageView(cell.getFloorTile());
-                }
-
-                cell.getChildren().add(tile);
-                gridPane.add(cell, x + 1, y + 1);
-            }
-        }
+    @Override
+    public void onPlayerMoved(GameEngine engine, int fromRow, int fromCol) {
+        renderer.drawPlayer(engine, fromRow, fromCol);
     }
 
     /**
-     * Generates game objects on the map based on the current state of the game engine.
-     * It places images representing different game objects in their respective cells.
+     * Redraws the whole new level.
+     *
+     * @param engine the engine whose level changed
      */
-    private void generateGameObjects () {
-        for (int y = 0; y < engine.getSize(); y++) {
-            for (int x = 0; x < engine.getSize(); x++) {
-                Cell cell = map[x][y];
-                if (cell.getGameObject() != null) {
-                    ImageView gameObjectImage = switch (cell.getGameObject().getSymbol()) {
-                        case 'M' -> new ImageView(melee);
-                        case 'R' -> new ImageView(ranged);
-                        case 'E' -> new ImageView(entrance);
-                        case 'L' -> new ImageView(ladder);
-                        case 'T' -> new ImageView(trap);
-                        case 'G' -> new ImageView(gold);
-                        case 'H' -> new ImageView(potion);
-                        default -> null;
-                    };
-                    if (gameObjectImage != null) {
-                        gridPane.add(gameObjectImage, y + 1, x + 1);
-                    }
-                }
-            }
-        }
-
-        // Add player image
-        int playerRow = engine.getPlayer().getRow();
-        int playerCol = engine.getPlayer().getCol();
-        ImageView playerImage = new ImageView(player);
-        gridPane.add(playerImage, playerCol + 1, playerRow + 1);
+    @Override
+    public void onLevelChanged(GameEngine engine) {
+        renderer.drawLevel(engine);
     }
 
     /**
@@ -293,6 +297,29 @@ public class GameController {
         healthBarText.setStyle("-fx-accent: " + (engine.getPlayerHP() > 5 ? "green" : "red") + ";");
     }
 
+    /**
+     * Adds an event to the top of the event log, numbered in the order events happened.
+     * The log keeps the last {@link EventLog#DEFAULT_CAPACITY} events.
+     *
+     * @param event the event to format and show
+     */
+    @Override
+    public void onEvent(GameEvent event) {
+        eventLines.push(event.getSequence() + ". " + event.getMessage());
+    }
+
+    /**
+     * Shows the end of game message, the engine records the final score on the leaderboard.
+     *
+     * @param engine  the engine whose game ended
+     * @param message the end of game message
+     * @param won     true if the player escaped, false otherwise
+     */
+    @Override
+    public void onGameOver(GameEngine engine, String message, boolean won) {
+        endGame(message, won ? "green" : "red");
+    }
+
     /**
      * Ends the game with a message and disables all movement buttons.
      * This method is called when the game is over, either by winning or losing.
@@ -0,0 +1,131 @@
+package dungeon.gui;
+
+import dungeon.engine.Board;
+import dungeon.engine.GameEngine;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
+
+/**
+ * Draws the dungeon as a GridPane with one stack of image views per cell.
+ * The nodes are created once, afterwards only their images change.
+ * Suitable for small boards; use {@link CanvasMapRenderer} for large ones.
+ */
+class GridMapRenderer implements MapRenderer {
+
+    private final GridPane gridPane;
+    private final Sprites sprites;
+    private final ImageView[][] floorViews; // Floor tile of each cell
+    private final ImageView[][] objectViews; // Game object of each cell, empty image if there is none
+    private final ImageView playerView; // The player sprite, moved between cells
+
+    /**
+     * Builds the grid of walls, floor tiles and game objects.
+     * The grid is expanded by one cell on each side to accommodate walls.
+     *
+     * @param gridPane the grid pane to fill
+     * @param sprites  the sprites to draw with
+     * @param size     the width and height of the board
+     */
+    GridMapRenderer(GridPane gridPane, Sprites sprites, int size) {
+        this.gridPane = gridPane;
+        this.sprites = sprites;
+        floorViews = new ImageView[size][size];
+        objectViews = new ImageView[size][size];
+
+        for (int y = -1; y < size + 1; y++) {
+            for (int x = -1; x < size + 1; x++) {
+
+                StackPane cell = new StackPane();
+                ImageView tile;
+
+                cell.setMinSize(Sprites.TILE_SIZE, Sprites.TILE_SIZE);
+
+                if (y < 0 && x >= 0 && x < size) {
+                    tile = view(Sprites.TOP_WALL);
+                } else if (x < 0 && y < size) {
+                    tile = view(Sprites.SIDE_WALL);
+                } else if (x >= size && y < size) {
+                    tile = view(Sprites.SIDE_WALL);
+                    tile.setRotate(180);
+                } else if (y >= size) {
+                    if (x < 0) {
+                        tile = view(Sprites.LEFT_CORNER_WALL);
+                    } else if (x >= size) {
+                        tile = view(Sprites.RIGHT_CORNER_WALL);
+                    } else {
+                        tile = view(Sprites.BOTTOM_WALL);
+                    }
+                } else {
+                    // Floor cell, its sprites are set by drawLevel and drawCell
+                    tile = new ImageView();
+                    floorViews[y][x] = tile;
+                    objectViews[y][x] = new ImageView();
+                    cell.getChildren().add(objectViews[y][x]);
+                }
+
+                cell.getChildren().add(0, tile);
+                gridPane.add(cell, x + 1, y + 1);
+            }
+        }
+
+        // The player is added last so it is drawn on top of the cells
+        playerView = view(Sprites.PLAYER);
+        gridPane.add(playerView, 1, 1);
+    }
+
+    /**
+     * Creates an image view showing one sprite of the atlas.
+     *
+     * @param sprite the sprite index
+     * @return the new image view
+     */
+    private ImageView view(int sprite) {
+        ImageView view = new ImageView();
+        show(view, sprite);
+        return view;
+    }
+
+    /**
+     * Changes the sprite an image view shows.
+     *
+     * @param view   the image view
+     * @param sprite the sprite index, or -1 to show nothing
+     */
+    private void show(ImageView view, int sprite) {
+        if (sprite < 0) {
+            view.setImage(null);
+        } else {
+            view.setImage(sprites.atlas());
+            view.setViewport(sprites.region(sprite));
+        }
+    }
+
+    @Override
+    public Node getNode() {
+        return gridPane;
+    }
+
+    @Override
+    public void drawLevel(GameEngine engine) {
+        Board map = engine.getBoard();
+        for (int row = 0; row < map.getSize(); row++) {
+            for (int col = 0; col < map.getSize(); col++) {
+                show(floorViews[row][col], Sprites.floor(map.getFloorTile(row, col)));
+                show(objectViews[row][col], Sprites.object(map.getObject(row, col)));
+            }
+        }
+        drawPlayer(engine, engine.getPlayer().getRow(), engine.getPlayer().getCol());
+    }
+
+    @Override
+    public void drawCell(GameEngine engine, int row, int col) {
+        show(objectViews[row][col], Sprites.object(engine.getBoard().getObject(row, col)));
+    }
+
+    @Override
+    public void drawPlayer(GameEngine engine, int fromRow, int fromCol) {
+        GridPane.setConstraints(playerView, engine.getPlayer().getCol() + 1, engine.getPlayer().getRow() + 1);
+    }
+}
@@ -1,15 +1,18 @@
 package dungeon.gui;
 
+import dungeon.engine.Leaderboard;
 import dungeon.engine.ScoreEntry;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Controller for the leaderboard GUI.
  * Displays the top 5 scores from the game.
+ * The scores come from the leaderboard's cached copy, so the window opens without reading any file,
+ * and are updated while the window is open as games finish.
  */
 public class LeaderboardController {
     @FXML
@@ -17,45 +20,31 @@ public class LeaderboardController {
 
     private List<Label> leaderboardLabels;
 
-    private final List<ScoreEntry> scores = new ArrayList<>();
-    private final List<ScoreEntry> topScores = new ArrayList<>();
+    private final Leaderboard leaderboard = Leaderboard.getDefault();
+
+    // The leaderboard calls this on its own thread, the labels are updated on the FX thread
+    private final Runnable update = () -> Platform.runLater(this::populateLeaderboard);
 
     @FXML
     private void initialize() {
         leaderboardLabels = List.of(top1, top2, top3, top4, top5);
 
-        // Read existing scores from the file
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.FileReader("ict221-mini-dungeon-usc-TP111\\src\\main\\resources\\data\\scores.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                try {
-                    String[] parts = line.split(" ");
-                    if (parts.length < 2) continue; // Skip invalid lines
-                    int score = Integer.parseInt(parts[0]);
-                    String date = parts[1];
-                    scores.add(new ScoreEntry(score, date));
-                } catch (NumberFormatException e) {
-                    System.err.println("Invalid score format in file: " + line);
-                }
-            }
-        } catch (java.io.IOException e) {
-            System.err.println("Error reading file: " + e.getMessage());
-        }
-
-        // Sort and add top 5 scores to the leaderboard
-        scores.sort(ScoreEntry::compareTo);
-        for (int i = 0; i < Math.min(5, scores.size()); i++) {
-            topScores.add(scores.get(i));
-        }
-
-        // Populate ListView with top scores
+        leaderboard.addListener(update);
         populateLeaderboard();
     }
 
+    /**
+     * Stops updating the labels, e.g. when the window is closed.
+     */
+    public void stopUpdates() {
+        leaderboard.removeListener(update);
+    }
+
     /**
      * Populates the labels with the top 5 scores.
      */
     private void populateLeaderboard() {
+        List<ScoreEntry> topScores = leaderboard.top(leaderboardLabels.size());
         for (int i = 0; i < leaderboardLabels.size(); i++) {
             if (i < topScores.size()) {
                 ScoreEntry entry = topScores.get(i);
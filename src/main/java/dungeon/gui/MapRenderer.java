@@ -0,0 +1,44 @@
+package dungeon.gui;
+
+import dungeon.engine.GameEngine;
+import javafx.scene.Node;
+
+/**
+ * Draws the dungeon of a game.
+ * The game controller forwards the engine's change notifications, so a renderer
+ * only has to redraw what changed.
+ */
+interface MapRenderer {
+
+    /**
+     * Returns the node that shows the dungeon.
+     *
+     * @return the node to put in the scene
+     */
+    Node getNode();
+
+    /**
+     * Redraws the whole current level, e.g. after climbing a ladder or loading a game.
+     *
+     * @param engine the engine to draw
+     */
+    void drawLevel(GameEngine engine);
+
+    /**
+     * Redraws the object in a single cell.
+     *
+     * @param engine the engine to draw
+     * @param row    the row of the cell
+     * @param col    the column of the cell
+     */
+    void drawCell(GameEngine engine, int row, int col);
+
+    /**
+     * Moves the player sprite from its old cell to the player's current cell.
+     *
+     * @param engine  the engine to draw
+     * @param fromRow the row the player left
+     * @param fromCol the column the player left
+     */
+    void drawPlayer(GameEngine engine, int fromRow, int fromCol);
+}
@@ -1,11 +1,15 @@
 package dungeon.gui;
 
+import dungeon.engine.Leaderboard;
+import dungeon.engine.MoveJournal;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Slider;
+import javafx.scene.control.Spinner;
 import javafx.stage.Stage;
 
 import java.io.IOException;
@@ -18,30 +22,42 @@ public class MenuController {
     @FXML
     private Button btStart;
 
+    @FXML
+    private Button btResume;
+
     @FXML
     private Slider difficultySlider;
 
+    @FXML
+    private Spinner<Integer> sizeSpinner;
+
+    @FXML
+    private Spinner<Integer> levelsSpinner;
+
+    @FXML
+    private CheckBox canvasCheckBox;
+
     @FXML
     private Button btLeaderboard;
 
     @FXML
     private void initialize() {
-        btStart.setOnAction(event -> {
-            try {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("game_gui.fxml"));
-                Parent root = loader.load();
+        // Decode the sprites in the background while the player is still in the menu
+        Sprites.preload();
+        // Start loading the leaderboard too, it is read in the background and kept up to date
+        Leaderboard.getDefault();
 
-                GameController gameController = loader.getController();
-                gameController.startGame(getSelectedDifficulty());
+        // A journal is only left behind by a game that didn't finish
+        boolean canResume = MoveJournal.exists(MoveJournal.DEFAULT_PATH);
+        btResume.setVisible(canResume);
+        btResume.setManaged(canResume);
 
-                Stage gameStage = new Stage();
-                gameStage.setScene(new Scene(root));
-                gameStage.setTitle("Dungeon Game");
-                gameStage.setResizable(false);
-                gameStage.show();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+        btStart.setOnAction(event -> openGame(false));
+
+        btResume.setOnAction(event -> {
+            btResume.setVisible(false);
+            btResume.setManaged(false);
+            openGame(true);
         });
 
 
@@ -49,11 +65,13 @@ public class MenuController {
             try {
                 FXMLLoader loader = new FXMLLoader(getClass().getResource("leaderboard_gui.fxml"));
                 Parent root = loader.load();
+                LeaderboardController leaderboardController = loader.getController();
 
                 Stage leaderboardStage = new Stage();
                 leaderboardStage.setScene(new Scene(root));
                 leaderboardStage.setTitle("Leaderboard");
                 leaderboardStage.setResizable(false);
+                leaderboardStage.setOnHidden(e -> leaderboardController.stopUpdates());
                 leaderboardStage.show();
 
             } catch (IOException e) {
@@ -62,7 +80,53 @@ public class MenuController {
         });
     }
 
+    /**
+     * Opens the game window with a new game, or with the unfinished game recovered from the move journal.
+     *
+     * @param resume true to recover the unfinished game, false to start a new one
+     */
+    private void openGame(boolean resume) {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("game_gui.fxml"));
+            Parent root = loader.load();
+
+            GameController gameController = loader.getController();
+            if (resume) {
+                gameController.resumeGame(useCanvas());
+            } else {
+                gameController.startGame(getSelectedDifficulty(), getSelectedSize(), getSelectedLevels(), useCanvas());
+            }
+
+            Stage gameStage = new Stage();
+            gameStage.setScene(new Scene(root));
+            gameStage.setTitle("Dungeon Game");
+            gameStage.setResizable(false);
+            gameStage.setOnHidden(e -> gameController.closeJournal());
+            gameStage.show();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     public int getSelectedDifficulty() {
         return (int) difficultySlider.getValue();
     }
+
+    public int getSelectedSize() {
+        return sizeSpinner.getValue();
+    }
+
+    public int getSelectedLevels() {
+        return levelsSpinner.getValue();
+    }
+
+    /**
+     * Returns whether the dungeon should be drawn on a canvas.
+     * Dungeons larger than the default size don't fit the grid of image views, so they always use the canvas.
+     *
+     * @return true to use the canvas renderer
+     */
+    public boolean useCanvas() {
+        return canvasCheckBox.isSelected() || getSelectedSize() > 10;
+    }
 }
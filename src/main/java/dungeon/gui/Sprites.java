@@ -0,0 +1,124 @@
+package dungeon.gui;
+
+import dungeon.engine.Board;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Process-wide cache of the 48x48 sprites used to draw the dungeon.
+ * Every sprite is decoded once and copied into a single texture atlas that all game
+ * windows and renderers share. Sprites are referred to by index, see the constants.
+ */
+public final class Sprites {
+
+    public static final int TILE_SIZE = 48; // Width and height of every sprite in pixels
+
+    // Sprite indexes into the atlas
+    static final int FLOOR = 0; // First of the floor tile variants
+    static final int TOP_WALL = 4;
+    static final int SIDE_WALL = 5;
+    static final int BOTTOM_WALL = 6;
+    static final int LEFT_CORNER_WALL = 7;
+    static final int RIGHT_CORNER_WALL = 8;
+    static final int PLAYER = 9;
+    private static final int OBJECTS = 10; // Game objects follow in the order of the Board type codes
+
+    private static final String[] FILES = {
+            "floor1", "floor2", "floor3", "floor4",
+            "topWall", "sideWall", "bottomWall", "leftCornerWall", "rightCornerWall", "player",
+            "entrance", "ladder", "trap", "gold", "melee", "ranged", "potion"
+    };
+    private static final int COLUMNS = 6; // Sprites per row of the atlas
+
+    private final WritableImage atlas;
+    private final Rectangle2D[] regions = new Rectangle2D[FILES.length];
+
+    /**
+     * Holder class so the sprites are loaded on first use, exactly once, without locking afterwards.
+     */
+    private static final class Holder {
+        static final Sprites INSTANCE = new Sprites();
+    }
+
+    private Sprites() {
+        int rows = (FILES.length + COLUMNS - 1) / COLUMNS;
+        atlas = new WritableImage(COLUMNS * TILE_SIZE, rows * TILE_SIZE);
+        for (int i = 0; i < FILES.length; i++) {
+            Image image = loadImage("images/" + FILES[i] + ".png");
+            int x = (i % COLUMNS) * TILE_SIZE;
+            int y = (i / COLUMNS) * TILE_SIZE;
+            atlas.getPixelWriter().setPixels(x, y, TILE_SIZE, TILE_SIZE, image.getPixelReader(), 0, 0);
+            regions[i] = new Rectangle2D(x, y, TILE_SIZE, TILE_SIZE);
+        }
+    }
+
+    /**
+     * Returns the shared sprites, loading them if this is the first call.
+     *
+     * @return the sprites
+     */
+    public static Sprites get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Starts loading the sprites on a background thread, so the first game opens without decoding them.
+     * Safe to call more than once.
+     */
+    public static void preload() {
+        Thread loader = new Thread(Sprites::get, "sprite-preload");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Loads an image from the specified filename.
+     * The image is set to a fixed size of 48x48 pixels.
+     *
+     * @param filename the name of the image file to load
+     * @return the loaded Image object
+     */
+    private static Image loadImage(String filename) {
+        return new Image(filename, TILE_SIZE, TILE_SIZE, false, false);
+    }
+
+    /**
+     * Returns the texture atlas holding every sprite.
+     *
+     * @return the atlas image
+     */
+    Image atlas() {
+        return atlas;
+    }
+
+    /**
+     * Returns where a sprite is in the atlas.
+     *
+     * @param sprite the sprite index
+     * @return the region of the atlas
+     */
+    Rectangle2D region(int sprite) {
+        return regions[sprite];
+    }
+
+    /**
+     * Returns the sprite index for a game object type.
+     *
+     * @param type the Board type code of the object
+     * @return the sprite index, or -1 for an empty cell
+     */
+    static int object(int type) {
+        return type == Board.EMPTY ? -1 : OBJECTS + type - 1;
+    }
+
+    /**
+     * Returns the sprite index for a floor tile variant.
+     *
+     * @param tile the floor tile index of a cell
+     * @return the sprite index
+     */
+    static int floor(int tile) {
+        return FLOOR + tile;
+    }
+}
@@ -0,0 +1,25 @@
+package dungeon.sim;
+
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Rng;
+
+/**
+ * Chooses the moves of a bot that plays a headless game.
+ * Policies are shared by every game of a simulation, so they keep no state of their own;
+ * anything random comes from the generator of the game being played.
+ */
+@FunctionalInterface
+public interface BotPolicy {
+
+    /**
+     * Chooses the next move.
+     * The move should stay on the board: a blocked move doesn't use a step, so a bot that
+     * keeps walking into a wall never finishes its game.
+     *
+     * @param engine the game being played, which is not over.
+     * @param rand   random numbers for this game's bot.
+     * @return the direction to move in.
+     */
+    Direction nextMove(GameEngine engine, Rng rand);
+}
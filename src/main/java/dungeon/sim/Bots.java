@@ -0,0 +1,137 @@
+package dungeon.sim;
+
+import dungeon.engine.Board;
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+import dungeon.engine.PathFinder;
+import dungeon.engine.Rng;
+
+/**
+ * The built-in bot policies.
+ */
+public enum Bots implements BotPolicy {
+
+    /**
+     * Moves in a random direction that stays on the board.
+     */
+    RANDOM_WALK {
+        @Override
+        public Direction nextMove(GameEngine engine, Rng rand) {
+            return randomMove(engine, rand);
+        }
+    },
+
+    /**
+     * Walks to the nearest gold, then to the ladder once there is no gold left on the level.
+     */
+    GOLD_COLLECTOR {
+        @Override
+        public Direction nextMove(GameEngine engine, Rng rand) {
+            int target = nearest(engine, Board.GOLD);
+            if (target < 0) target = nearest(engine, Board.LADDER);
+            return toward(engine, target, rand);
+        }
+    },
+
+    /**
+     * Collects gold like the gold collector, but along paths that go around traps and mutants.
+     */
+    CAUTIOUS_COLLECTOR {
+        @Override
+        public Direction nextMove(GameEngine engine, Rng rand) {
+            PathFinder paths = engine.getPathFinder();
+            int row = engine.getPlayer().getRow();
+            int col = engine.getPlayer().getCol();
+            if (paths.findNearest(row, col, Board.GOLD, GOLD_PATHS) > 0
+                    || paths.findNearest(row, col, Board.LADDER, PathFinder.Weights.AVOID_DANGER) > 0) {
+                return paths.getStep(0);
+            }
+            return randomMove(engine, rand);
+        }
+    },
+
+    /**
+     * Walks straight to the ladder, ignoring everything on the way.
+     */
+    LADDER_RUSHER {
+        @Override
+        public Direction nextMove(GameEngine engine, Rng rand) {
+            return toward(engine, nearest(engine, Board.LADDER), rand);
+        }
+    };
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Around traps and mutants, and off the ladder so the level doesn't end on the way to the gold
+    private static final PathFinder.Weights GOLD_PATHS = PathFinder.Weights.AVOID_DANGER.with(Board.LADDER,
+            PathFinder.Weights.BLOCKED);
+
+    /**
+     * Returns the cell of the nearest object of a type, by the number of steps to it.
+     *
+     * @param engine the game.
+     * @param type   the object type code.
+     * @return the index of the cell (row * size + col), or -1 if the level has none.
+     */
+    static int nearest(GameEngine engine, int type) {
+        Board board = engine.getBoard();
+        int size = board.getSize();
+        int playerRow = engine.getPlayer().getRow();
+        int playerCol = engine.getPlayer().getCol();
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (board.getObject(row, col) != type) continue;
+                int distance = Math.abs(row - playerRow) + Math.abs(col - playerCol);
+                if (distance < bestDistance) {
+                    best = row * size + col;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns a move that takes the player one step closer to a cell, picking at random
+     * when both a row and a column step would.
+     *
+     * @param engine the game.
+     * @param target the index of the cell (row * size + col), or -1 to move at random.
+     * @param rand   random numbers for the bot.
+     * @return the direction to move in.
+     */
+    static Direction toward(GameEngine engine, int target, Rng rand) {
+        if (target < 0) return randomMove(engine, rand);
+
+        int size = engine.getSize();
+        int rowDelta = target / size - engine.getPlayer().getRow();
+        int colDelta = target % size - engine.getPlayer().getCol();
+        Direction vertical = (rowDelta < 0) ? Direction.UP : Direction.DOWN;
+        Direction horizontal = (colDelta < 0) ? Direction.LEFT : Direction.RIGHT;
+        if (rowDelta == 0 && colDelta == 0) return randomMove(engine, rand);
+        if (rowDelta == 0) return horizontal;
+        if (colDelta == 0) return vertical;
+        return rand.nextBoolean() ? vertical : horizontal;
+    }
+
+    /**
+     * Returns a random move that stays on the board.
+     *
+     * @param engine the game.
+     * @param rand   random numbers for the bot.
+     * @return the direction to move in.
+     */
+    static Direction randomMove(GameEngine engine, Rng rand) {
+        while (true) {
+            Direction direction = DIRECTIONS[rand.nextInt(DIRECTIONS.length)];
+            if (isOnBoard(engine, direction)) return direction;
+        }
+    }
+
+    private static boolean isOnBoard(GameEngine engine, Direction direction) {
+        int row = engine.getPlayer().getRow() + direction.getRowStep();
+        int col = engine.getPlayer().getCol() + direction.getColStep();
+        return row >= 0 && row < engine.getSize() && col >= 0 && col < engine.getSize();
+    }
+}
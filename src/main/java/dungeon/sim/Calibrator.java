@@ -0,0 +1,187 @@
+package dungeon.sim;
+
+import dungeon.engine.DifficultyTable;
+import dungeon.engine.DifficultyTable.Counts;
+import dungeon.engine.Rng;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Builds a difficulty table from simulated games, so that each difficulty is as hard as intended.
+ * Every difficulty has a target rate at which a bot clears a single level. The object counts are
+ * drawn from a scale that runs from {@link #EASIEST} to {@link #HARDEST}, and the point on the scale
+ * that hits the target is found by bisection.
+ * Each step of the bisection plays games in batches until the confidence interval of the clear rate
+ * is either clear of the target, which is all the bisection needs to know, or narrower than the
+ * tolerance. Most steps are far from the target and stop after the first batch.
+ * The difficulties are calibrated in parallel, and their games are split across the cores.
+ */
+public final class Calibrator {
+
+    /** The easiest level on the scale: few traps and mutants, plenty of potions. */
+    public static final Counts EASIEST = new Counts(2, 5, 1, 0, 4);
+    /** The hardest level on the scale: many traps and mutants, no potions. */
+    public static final Counts HARDEST = new Counts(12, 5, 8, 16, 0);
+
+    static final int BATCH_GAMES = 2048; // Games played before the confidence interval is checked
+    static final int MAX_STEPS = 12; // Bisection steps, finer than the counts can follow
+    private static final double Z = 1.96; // 95% confidence
+    private static final int SIZE = 10; // The table's counts are for a 10x10 board
+
+    private Calibrator() {
+    }
+
+    /**
+     * Returns the default target clear rates: from 90% of levels at difficulty 0 down to 30% at difficulty 10.
+     *
+     * @return the target rate of each difficulty.
+     */
+    public static double[] defaultTargets() {
+        double[] targets = new double[DifficultyTable.MAX_DIFFICULTY + 1];
+        for (int difficulty = 0; difficulty < targets.length; difficulty++) {
+            targets[difficulty] = 0.9 - 0.6 * difficulty / DifficultyTable.MAX_DIFFICULTY;
+        }
+        return targets;
+    }
+
+    /**
+     * Calibrates a difficulty table.
+     *
+     * @param bot       the bot whose clear rates the table is tuned for.
+     * @param targets   the target rate at which the bot clears a level of each difficulty.
+     * @param maxGames  the most games played for one step of the bisection.
+     * @param tolerance the clear rate is close enough once its confidence interval is narrower than this either side.
+     * @param seed      the simulation seed.
+     * @return the calibrated table.
+     */
+    public static DifficultyTable calibrate(BotPolicy bot, double[] targets, long maxGames, double tolerance, long seed) {
+        if (targets.length != DifficultyTable.MAX_DIFFICULTY + 1) {
+            throw new IllegalArgumentException("Need a target for every difficulty");
+        }
+        List<Counts> levels = IntStream.rangeClosed(0, DifficultyTable.MAX_DIFFICULTY)
+                .parallel()
+                .mapToObj(difficulty -> calibrate(bot, difficulty, targets[difficulty], maxGames, tolerance,
+                        Rng.mix64(seed + difficulty)))
+                .toList();
+        return new DifficultyTable(levels);
+    }
+
+    /**
+     * Finds the counts of one difficulty by bisection over the scale from easiest to hardest.
+     */
+    private static Counts calibrate(BotPolicy bot, int difficulty, double target, long maxGames, double tolerance,
+                                    long seed) {
+        double easy = 0;
+        double hard = 1;
+        Counts best = counts(0.5);
+        for (int step = 0; step < MAX_STEPS && !counts(easy).equals(counts(hard)); step++) {
+            double middle = (easy + hard) / 2;
+            best = counts(middle);
+            int comparison = compare(bot, difficulty, best, target, maxGames, tolerance, seed + step);
+            if (comparison == 0) break;
+            if (comparison > 0) {
+                easy = middle; // Cleared too often, make it harder
+            } else {
+                hard = middle;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays single levels until their clear rate is known to be above, below or close to the target.
+     *
+     * @return 1 if levels are cleared more often than the target, -1 if less often, 0 if close enough.
+     */
+    static int compare(BotPolicy bot, int difficulty, Counts counts, double target, long maxGames, double tolerance,
+                       long seed) {
+        DifficultyTable table = DifficultyTable.LINEAR.with(difficulty, counts);
+        SimulationStats stats = new SimulationStats();
+        for (long batch = 0; stats.getGames() < maxGames; batch++) {
+            long games = Math.min(BATCH_GAMES, maxGames - stats.getGames());
+            stats.merge(Simulator.run(bot, SIZE, 1, difficulty, table, games, Rng.mix64(seed + batch)));
+
+            double lower = wilsonLower(stats.getWins(), stats.getGames());
+            double upper = wilsonUpper(stats.getWins(), stats.getGames());
+            if (lower > target) return 1;
+            if (upper < target) return -1;
+            if (upper - lower < 2 * tolerance) return 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the counts at a point on the scale, rounding each count between the easiest and hardest.
+     *
+     * @param hardness 0 for the easiest counts, 1 for the hardest.
+     * @return the counts.
+     */
+    static Counts counts(double hardness) {
+        return new Counts(
+                between(EASIEST.traps(), HARDEST.traps(), hardness),
+                between(EASIEST.gold(), HARDEST.gold(), hardness),
+                between(EASIEST.meleeMutants(), HARDEST.meleeMutants(), hardness),
+                between(EASIEST.rangedMutants(), HARDEST.rangedMutants(), hardness),
+                between(EASIEST.healthPotions(), HARDEST.healthPotions(), hardness));
+    }
+
+    private static int between(int easy, int hard, double hardness) {
+        return (int) Math.round(easy + (hard - easy) * hardness);
+    }
+
+    /**
+     * Returns the lower end of the Wilson score interval of a rate, which stays accurate for rates near 0 or 1.
+     *
+     * @param successes the number of successes.
+     * @param trials    the number of trials.
+     * @return the lower end of the 95% confidence interval.
+     */
+    static double wilsonLower(long successes, long trials) {
+        return wilsonCenter(successes, trials) - wilsonHalfWidth(successes, trials);
+    }
+
+    /**
+     * Returns the upper end of the Wilson score interval of a rate.
+     *
+     * @param successes the number of successes.
+     * @param trials    the number of trials.
+     * @return the upper end of the 95% confidence interval.
+     */
+    static double wilsonUpper(long successes, long trials) {
+        return wilsonCenter(successes, trials) + wilsonHalfWidth(successes, trials);
+    }
+
+    private static double wilsonCenter(long successes, long trials) {
+        double p = (double) successes / trials;
+        return (p + Z * Z / (2.0 * trials)) / (1 + Z * Z / trials);
+    }
+
+    private static double wilsonHalfWidth(long successes, long trials) {
+        double p = (double) successes / trials;
+        return Z * Math.sqrt(p * (1 - p) / trials + Z * Z / (4.0 * trials * trials)) / (1 + Z * Z / trials);
+    }
+
+    /**
+     * Calibrates a difficulty table and writes it where new games load it from.
+     * Usage: {@code Calibrator [bot] [max games per step] [seed] [output.csv]}, where the bot is one of
+     * {@link Bots} and defaults to GOLD_COLLECTOR. The table is written to {@link DifficultyTable#DEFAULT_PATH}
+     * unless an output file is given.
+     *
+     * @param args the command line arguments.
+     */
+    public static void main(String[] args) throws IOException {
+        Bots bot = (args.length > 0) ? Bots.valueOf(args[0].toUpperCase()) : Bots.GOLD_COLLECTOR;
+        long maxGames = (args.length > 1) ? Long.parseLong(args[1]) : 50_000;
+        long seed = (args.length > 2) ? Long.parseLong(args[2]) : Rng.randomSeed();
+        Path output = (args.length > 3) ? Path.of(args[3]) : DifficultyTable.DEFAULT_PATH;
+
+        long start = System.nanoTime();
+        DifficultyTable table = calibrate(bot, defaultTargets(), maxGames, 0.01, seed);
+        table.write(output);
+        System.out.print(table);
+        System.out.printf("Calibrated in %.1f s, written to %s%n", (System.nanoTime() - start) / 1e9, output);
+    }
+}
@@ -0,0 +1,17 @@
+package dungeon.sim;
+
+/**
+ * How a simulated game ended: escaped, or what killed the player.
+ */
+public enum EndReason {
+    /** The player escaped the last level. */
+    ESCAPED,
+    /** The player died from a trap. */
+    TRAP,
+    /** The player died fighting a melee mutant. */
+    MELEE_MUTANT,
+    /** The player was shot by a ranged mutant. */
+    RANGED_MUTANT,
+    /** The player used up all of their steps. */
+    OUT_OF_STEPS
+}
@@ -0,0 +1,114 @@
+package dungeon.sim;
+
+import java.util.Locale;
+
+/**
+ * Aggregate results of a batch of simulated games.
+ * Each worker adds its own games to its own stats and the stats are merged afterwards,
+ * so no games are kept and nothing is shared between threads.
+ */
+public final class SimulationStats {
+
+    /**
+     * The CSV header matching {@link #toCsvRow(String, int, int, int)}.
+     */
+    public static final String CSV_HEADER = "bot,size,levels,difficulty,games,wins,win_rate,mean_score,"
+            + "mean_steps,mean_levels_cleared,escaped,trap,melee_mutant,ranged_mutant,out_of_steps";
+
+    private long games;
+    private long escapedScore; // Total score of the games that were won, lost games always score -1
+    private long steps;
+    private long levelsCleared;
+    private final long[] endings = new long[EndReason.values().length];
+
+    /**
+     * Adds the result of one game.
+     *
+     * @param reason        how the game ended.
+     * @param score         the final score.
+     * @param steps         the steps used.
+     * @param levelsCleared the number of levels the player got out of.
+     */
+    public void add(EndReason reason, int score, int steps, int levelsCleared) {
+        games++;
+        endings[reason.ordinal()]++;
+        if (reason == EndReason.ESCAPED) escapedScore += score;
+        this.steps += steps;
+        this.levelsCleared += levelsCleared;
+    }
+
+    /**
+     * Adds every game of other stats to these.
+     *
+     * @param other the stats to add.
+     * @return these stats.
+     */
+    public SimulationStats merge(SimulationStats other) {
+        games += other.games;
+        escapedScore += other.escapedScore;
+        steps += other.steps;
+        levelsCleared += other.levelsCleared;
+        for (int i = 0; i < endings.length; i++) {
+            endings[i] += other.endings[i];
+        }
+        return this;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return getCount(EndReason.ESCAPED);
+    }
+
+    /**
+     * Returns the number of games that ended a certain way.
+     *
+     * @param reason how the games ended.
+     * @return the number of games.
+     */
+    public long getCount(EndReason reason) {
+        return endings[reason.ordinal()];
+    }
+
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) getWins() / games;
+    }
+
+    /**
+     * Returns the mean final score of the games that were won.
+     *
+     * @return the mean score, or 0 if no game was won.
+     */
+    public double getMeanScore() {
+        return getWins() == 0 ? 0 : (double) escapedScore / getWins();
+    }
+
+    public double getMeanSteps() {
+        return games == 0 ? 0 : (double) steps / games;
+    }
+
+    public double getMeanLevelsCleared() {
+        return games == 0 ? 0 : (double) levelsCleared / games;
+    }
+
+    /**
+     * Formats these stats as a line of CSV, see {@link #CSV_HEADER}.
+     *
+     * @param bot        the name of the bot that played.
+     * @param size       the board size.
+     * @param levels     the number of levels.
+     * @param difficulty the starting difficulty.
+     * @return the CSV line, without a line break.
+     */
+    public String toCsvRow(String bot, int size, int levels, int difficulty) {
+        StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.6f,%.3f,%.3f,%.3f",
+                bot, size, levels, difficulty, games, getWins(), getWinRate(), getMeanScore(), getMeanSteps(),
+                getMeanLevelsCleared()));
+        for (long count : endings) {
+            row.append(',').append(count);
+        }
+        return row.toString();
+    }
+}
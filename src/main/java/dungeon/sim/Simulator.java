@@ -0,0 +1,196 @@
+package dungeon.sim;
+
+import dungeon.engine.Board;
+import dungeon.engine.DifficultyTable;
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+import dungeon.engine.GameEvent;
+import dungeon.engine.GameListener;
+import dungeon.engine.Rng;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays batches of headless games with a bot and aggregates the results, e.g. to tune the difficulty.
+ * Games are split across the cores with fork-join, each game gets its own seed derived from the
+ * simulation seed, so a simulation gives the same stats no matter how many threads played it.
+ * Headless engines have no journal or leaderboard, so simulated games leave nothing on disk.
+ */
+public final class Simulator {
+
+    static final int GAMES_PER_TASK = 256; // Games played in a row by one fork-join task
+
+    private Simulator() {
+    }
+
+    /**
+     * Plays a batch of games with the {@link DifficultyTable#LINEAR} levels on the common fork-join pool.
+     *
+     * @param bot        the bot that plays.
+     * @param size       the board size.
+     * @param levels     the number of levels.
+     * @param difficulty the starting difficulty.
+     * @param games      the number of games to play.
+     * @param seed       the simulation seed.
+     * @return the stats of the games.
+     */
+    public static SimulationStats run(BotPolicy bot, int size, int levels, int difficulty, long games, long seed) {
+        return run(bot, size, levels, difficulty, DifficultyTable.LINEAR, games, seed);
+    }
+
+    /**
+     * Plays a batch of games with a difficulty table on the common fork-join pool.
+     *
+     * @param bot        the bot that plays.
+     * @param size       the board size.
+     * @param levels     the number of levels.
+     * @param difficulty the starting difficulty.
+     * @param table      the objects of a level at each difficulty.
+     * @param games      the number of games to play.
+     * @param seed       the simulation seed.
+     * @return the stats of the games.
+     */
+    public static SimulationStats run(BotPolicy bot, int size, int levels, int difficulty, DifficultyTable table,
+                                      long games, long seed) {
+        Settings settings = new Settings(bot, size, levels, difficulty, table, seed);
+        return ForkJoinPool.commonPool().invoke(new Batch(settings, 0, games));
+    }
+
+    /**
+     * Plays one game until it is over.
+     *
+     * @param settings what to simulate.
+     * @param seed     the game seed.
+     * @param stats    the stats to add the game to.
+     */
+    static void play(Settings settings, long seed, SimulationStats stats) {
+        Outcome outcome = new Outcome();
+        GameEngine engine = new GameEngine(settings.size(), settings.difficulty(), outcome, seed, settings.levels(),
+                settings.table());
+        Rng rand = new Rng(Rng.mix64(~seed)); // Independent of the combat rolls
+        while (!engine.isGameOver()) {
+            Direction move = settings.bot().nextMove(engine, rand);
+            engine.movePlayer(move.isVertical(), move.isUpRight());
+        }
+        int levelsCleared = (outcome.reason == EndReason.ESCAPED) ? engine.getLevel() : engine.getLevel() - 1;
+        stats.add(outcome.reason, engine.getScore(), engine.getCurrSteps(), levelsCleared);
+    }
+
+    /**
+     * Returns the seed of a game of a simulation.
+     *
+     * @param seed the simulation seed.
+     * @param game the number of the game, starting at 0.
+     * @return the game seed.
+     */
+    static long gameSeed(long seed, long game) {
+        return Rng.mix64(seed + game * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * What a simulation plays.
+     *
+     * @param bot        the bot that plays.
+     * @param size       the board size.
+     * @param levels     the number of levels.
+     * @param difficulty the starting difficulty.
+     * @param table      the objects of a level at each difficulty.
+     * @param seed       the simulation seed.
+     */
+    record Settings(BotPolicy bot, int size, int levels, int difficulty, DifficultyTable table, long seed) {
+    }
+
+    /**
+     * Works out how a game ended from its events. The first end counts, in case more end events follow it.
+     */
+    private static final class Outcome implements GameListener {
+        private int lastDamage = Board.EMPTY; // Source of the last damage taken
+        private EndReason reason;
+
+        @Override
+        public void onEvent(GameEvent event) {
+            if (reason != null) return;
+            switch (event.getType()) {
+                case DAMAGE -> lastDamage = event.getSource();
+                case ESCAPED -> reason = EndReason.ESCAPED;
+                case OUT_OF_STEPS -> reason = EndReason.OUT_OF_STEPS;
+                case DIED -> reason = switch (lastDamage) {
+                    case Board.TRAP -> EndReason.TRAP;
+                    case Board.MELEE_MUTANT -> EndReason.MELEE_MUTANT;
+                    default -> EndReason.RANGED_MUTANT;
+                };
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays a range of the games of a simulation, splitting it in half until it is small enough.
+     */
+    private static final class Batch extends RecursiveTask<SimulationStats> {
+        private final Settings settings;
+        private final long from;
+        private final long to;
+
+        Batch(Settings settings, long from, long to) {
+            this.settings = settings;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from > GAMES_PER_TASK) {
+                long middle = (from + to) >>> 1;
+                Batch second = new Batch(settings, middle, to);
+                second.fork();
+                SimulationStats stats = new Batch(settings, from, middle).compute();
+                return stats.merge(second.join());
+            }
+
+            SimulationStats stats = new SimulationStats();
+            for (long game = from; game < to; game++) {
+                play(settings, gameSeed(settings.seed(), game), stats);
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Simulates games at every difficulty and writes a line of CSV for each difficulty as soon as it is done.
+     * Usage: {@code Simulator <bot> <games per difficulty> [size] [levels] [seed] [output.csv]},
+     * where the bot is one of {@link Bots}. Without an output file the CSV is written to standard output.
+     *
+     * @param args the command line arguments.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: Simulator <bot> <games per difficulty> [size] [levels] [seed] [output.csv]");
+            System.err.println("Bots: RANDOM_WALK, GOLD_COLLECTOR, CAUTIOUS_COLLECTOR, LADDER_RUSHER");
+            System.exit(1);
+        }
+        Bots bot = Bots.valueOf(args[0].toUpperCase());
+        long games = Long.parseLong(args[1]);
+        int size = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+        int levels = (args.length > 3) ? Integer.parseInt(args[3]) : GameEngine.DEFAULT_LEVELS;
+        long seed = (args.length > 4) ? Long.parseLong(args[4]) : Rng.randomSeed();
+
+        try (PrintWriter out = (args.length > 5)
+                ? new PrintWriter(Files.newBufferedWriter(Path.of(args[5])))
+                : new PrintWriter(System.out)) {
+            out.println(SimulationStats.CSV_HEADER);
+            out.flush();
+            for (int difficulty = 0; difficulty <= 10; difficulty++) {
+                SimulationStats stats = run(bot, size, levels, difficulty, games, seed + difficulty);
+                out.println(stats.toCsvRow(bot.name(), size, levels, difficulty));
+                out.flush();
+            }
+        }
+    }
+}
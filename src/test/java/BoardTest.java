@@ -0,0 +1,80 @@
+import dungeon.engine.Board;
+import dungeon.engine.gameobjects.Gold;
+import dungeon.engine.gameobjects.RangedMutant;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardTest {
+
+    @Test
+    void testSetObject_keepsFloorTile() {
+        Board board = new Board(10);
+        board.setFloorTile(2, 3, 3);
+        board.setObject(2, 3, Board.RANGED_MUTANT);
+        assertEquals(Board.RANGED_MUTANT, board.getObject(2, 3));
+        assertEquals(3, board.getFloorTile(2, 3));
+
+        board.setObject(2, 3, Board.EMPTY);
+        assertEquals(Board.EMPTY, board.getObject(2, 3));
+        assertEquals(3, board.getFloorTile(2, 3));
+    }
+
+    @Test
+    void testGetGameObject() {
+        Board board = new Board(5);
+        board.setObject(4, 4, Board.GOLD);
+        assertTrue(board.getGameObject(4, 4) instanceof Gold);
+        assertEquals('G', board.getSymbol(4, 4));
+        assertNull(board.getGameObject(0, 0));
+        assertEquals('.', board.getSymbol(0, 0));
+    }
+
+    @Test
+    void testTypeNames() {
+        assertEquals(Board.RANGED_MUTANT, Board.typeOf(new RangedMutant()));
+        assertEquals(Board.HEALTH_POTION, Board.typeOf(Board.nameOf(Board.HEALTH_POTION)));
+        assertEquals(-1, Board.typeOf("Dragon"));
+    }
+
+    @Test
+    void testRangedMutantCounts() {
+        Board board = new Board(10);
+        board.setObject(1, 2, Board.RANGED_MUTANT);
+        board.setObject(1, 5, Board.RANGED_MUTANT);
+        assertEquals(2, board.getRangedInRow(1));
+        assertEquals(1, board.getRangedInCol(2));
+
+        // Replacing or clearing a mutant updates the counts
+        board.setObject(1, 2, Board.GOLD);
+        board.setObject(1, 5, Board.EMPTY);
+        assertEquals(0, board.getRangedInRow(1));
+        assertEquals(0, board.getRangedInCol(5));
+    }
+
+    /**
+     * Test that a copy and its board change independently, including the ranged mutant counts and large boards.
+     */
+    @Test
+    void testCopy_independent() {
+        Board board = new Board(40);
+        board.setObject(3, 4, Board.GOLD);
+        board.setFloorTile(39, 39, 2);
+        Board copy = board.copy();
+        assertArrayEquals(board.toBytes(), copy.toBytes());
+
+        copy.setObject(3, 4, Board.EMPTY);
+        copy.setObject(39, 39, Board.RANGED_MUTANT);
+        board.setObject(0, 0, Board.TRAP);
+        assertEquals(Board.GOLD, board.getObject(3, 4));
+        assertEquals(Board.EMPTY, board.getObject(39, 39));
+        assertEquals(0, board.getRangedInRow(39));
+        assertEquals(Board.EMPTY, copy.getObject(0, 0));
+        assertEquals(Board.RANGED_MUTANT, copy.getObject(39, 39));
+        assertEquals(2, copy.getFloorTile(39, 39));
+        assertEquals(1, copy.getRangedInCol(39));
+
+        Board fromBytes = Board.fromBytes(40, copy.toBytes());
+        assertArrayEquals(copy.toBytes(), fromBytes.toBytes());
+        assertEquals(1, fromBytes.getRangedInRow(39));
+    }
+}
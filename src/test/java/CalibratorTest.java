@@ -0,0 +1,26 @@
+import dungeon.engine.DifficultyTable;
+import dungeon.sim.Bots;
+import dungeon.sim.Calibrator;
+import dungeon.sim.SimulationStats;
+import dungeon.sim.Simulator;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalibratorTest {
+
+    /**
+     * Test that a calibrated table makes higher difficulties harder, and clears levels near the targets.
+     */
+    @Test
+    void testCalibrate_followsTargets() {
+        double[] targets = Calibrator.defaultTargets();
+        DifficultyTable table = Calibrator.calibrate(Bots.GOLD_COLLECTOR, targets, 4000, 0.03, 5L);
+
+        assertTrue(table.get(10).rangedMutants() + table.get(10).meleeMutants()
+                > table.get(0).rangedMutants() + table.get(0).meleeMutants());
+        for (int difficulty : new int[]{0, 5, 10}) {
+            SimulationStats stats = Simulator.run(Bots.GOLD_COLLECTOR, 10, 1, difficulty, table, 4000, 9L);
+            assertEquals(targets[difficulty], stats.getWinRate(), 0.1, "difficulty " + difficulty);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+import dungeon.engine.Board;
+import dungeon.engine.DifficultyTable;
+import dungeon.engine.DifficultyTable.Counts;
+import dungeon.engine.GameEngine;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class DifficultyTableTest {
+
+    /**
+     * Test that a table reads back the same as it was written.
+     */
+    @Test
+    void testWriteAndRead() throws Exception {
+        DifficultyTable table = DifficultyTable.LINEAR.with(4, new Counts(7, 1, 2, 9, 0));
+        Path file = Files.createTempFile("difficulty", ".csv");
+        try {
+            table.write(file);
+            assertEquals(table, DifficultyTable.read(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test that the engine places the objects its table gives for the difficulty.
+     */
+    @Test
+    void testEngineUsesTable() {
+        DifficultyTable table = DifficultyTable.LINEAR.with(2, new Counts(0, 10, 0, 7, 1));
+        GameEngine engine = new GameEngine(10, 2, null, 3L, 1, table);
+        int[] counts = new int[16];
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 10; col++) {
+                counts[engine.getBoard().getObject(row, col)]++;
+            }
+        }
+        assertEquals(0, counts[Board.TRAP]);
+        assertEquals(10, counts[Board.GOLD]);
+        assertEquals(7, counts[Board.RANGED_MUTANT]);
+        assertEquals(1, counts[Board.HEALTH_POTION]);
+    }
+
+    /**
+     * Test that a table that doesn't fit on a board is rejected.
+     */
+    @Test
+    void testTooManyObjects() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DifficultyTable.LINEAR.with(0, new Counts(50, 50, 0, 0, 0)));
+    }
+}
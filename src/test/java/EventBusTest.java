@@ -0,0 +1,52 @@
+import dungeon.engine.Board;
+import dungeon.engine.EventBus;
+import dungeon.engine.EventType;
+import dungeon.engine.GameEvent;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class EventBusTest {
+
+    @Test
+    void testPublish_reachesSubscribers() {
+        EventBus bus = new EventBus();
+        List<String> messages = new ArrayList<>();
+        bus.subscribe(event -> messages.add(event.getMessage()));
+
+        bus.publish(EventType.PICKUP, Board.GOLD, 2);
+        bus.publish(EventType.DAMAGE, Board.TRAP, 2);
+
+        assertEquals(2, bus.getSequence());
+        assertEquals("You picked up a gold coin! You receive 2 score.", messages.get(0));
+        assertEquals("You stepped on a trap! You take 2 damage.", messages.get(1));
+    }
+
+    @Test
+    void testRing_keepsOnlyRecentEvents() {
+        EventBus bus = new EventBus(4);
+        for (int i = 1; i <= 6; i++) {
+            bus.publish(EventType.LEVEL_CHANGE, Board.EMPTY, i);
+        }
+
+        GameEvent latest = bus.get(6);
+        assertEquals(6, latest.getAmount());
+        assertEquals(3, bus.get(3).getAmount());
+        assertNull(bus.get(2)); // Overwritten
+        assertNull(bus.get(7)); // Not published yet
+    }
+
+    @Test
+    void testUnsubscribe() {
+        EventBus bus = new EventBus();
+        List<EventType> types = new ArrayList<>();
+        EventBus.Subscriber subscriber = event -> types.add(event.getType());
+        bus.subscribe(subscriber);
+        bus.publish(EventType.BLOCKED, Board.EMPTY, 0);
+        bus.unsubscribe(subscriber);
+        bus.publish(EventType.BLOCKED, Board.EMPTY, 0);
+        assertEquals(1, types.size());
+    }
+}
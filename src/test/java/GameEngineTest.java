@@ -1,12 +1,21 @@
 import dungeon.engine.GameEngine;
+import dungeon.engine.GameListener;
+import dungeon.engine.GameSnapshot;
+import dungeon.engine.Leaderboard;
 import dungeon.engine.gameobjects.*;
+import dungeon.engine.Board;
 import dungeon.engine.Cell;
+import dungeon.engine.SaveFile;
+import dungeon.engine.SaveState;
 
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public class GameEngineTest {
 
@@ -174,11 +183,237 @@ public class GameEngineTest {
         assertEquals(getCellSymbol(engine.getMap(), 7, 3), getCellSymbol(loadedEngine.getMap(), 7, 3));
     }
 
+    /**
+     * Test that two engines with the same seed generate the same dungeon and play out the same way.
+     */
+    @Test
+    void testSameSeed_sameGame() {
+        GameEngine first = new GameEngine(10, 5, null, 42L);
+        GameEngine second = new GameEngine(10, 5, null, 42L);
+
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 10; col++) {
+                assertEquals(getCellSymbol(first.getMap(), row, col), getCellSymbol(second.getMap(), row, col));
+            }
+        }
+
+        for (int i = 0; i < 9; i++) {
+            first.movePlayer(true, true);
+            second.movePlayer(true, true);
+        }
+        assertEquals(first.getPlayerHP(), second.getPlayerHP());
+        assertEquals(first.getScore(), second.getScore());
+        assertEquals(first.getLevel(), second.getLevel());
+    }
+
     private String getCellSymbol(Cell[][] map, int row, int col) {
         Cell cell = map[row][col];
         return (cell != null && cell.getGameObject() != null) ? String.valueOf(cell.getGameObject().getSymbol()) : null;
     }
 
+    /**
+     * Test that levels are generated when reached, and left levels are paged out and read back intact.
+     */
+    @Test
+    void testManyLevels_pagedOut() {
+        GameEngine deep = new GameEngine(10, 0, null, 7L, 50);
+        deep.setLevelBudget(0); // Page out every level as soon as it is left
+        assertNull(deep.getBoard(2));
+
+        byte[] first = deep.getBoard().toBytes();
+        for (int i = 1; i < 50; i++) {
+            deep.nextLevel();
+        }
+        assertEquals(50, deep.getLevel());
+        assertFalse(deep.isGameOver());
+        assertArrayEquals(first, deep.getBoard(1).toBytes());
+
+        deep.nextLevel();
+        assertTrue(deep.isGameOver());
+    }
+
+    /**
+     * Test that levels paged out again and again over their earlier boards are still read back intact.
+     */
+    @Test
+    void testLevels_pagedOutRepeatedly() {
+        GameEngine deep = new GameEngine(10, 0, null, 7L, 5);
+        deep.setLevelBudget(0);
+        byte[] first = deep.getBoard().toBytes();
+        deep.nextLevel();
+        byte[] second = deep.getBoard().toBytes();
+        deep.nextLevel();
+
+        for (int i = 0; i < 20; i++) {
+            assertArrayEquals(first, deep.getBoard(1).toBytes());
+            assertArrayEquals(second, deep.getBoard(2).toBytes());
+        }
+    }
+
+    /**
+     * Test that a prefetched level is entered at the ladder, and is the same after loading a save.
+     */
+    @Test
+    void testPrefetchedNextLevel() {
+        GameEngine first = new GameEngine(60, 3, null, 11L, 3);
+        SaveState save = first.createSave();
+        int ladderRow = -1;
+        int ladderCol = -1;
+        for (int row = 0; row < 60; row++) {
+            for (int col = 0; col < 60; col++) {
+                if (first.getBoard().getObject(row, col) == Board.LADDER) {
+                    ladderRow = row;
+                    ladderCol = col;
+                }
+            }
+        }
+
+        first.nextLevel();
+        assertEquals(2, first.getLevel());
+        assertEquals(Board.ENTRANCE, first.getBoard().getObject(ladderRow, ladderCol));
+
+        GameEngine loaded = new GameEngine(60, 3, null, 99L, 3);
+        loaded.applySave(save);
+        loaded.nextLevel();
+        assertArrayEquals(first.getBoard().toBytes(), loaded.getBoard().toBytes());
+    }
+
+    /**
+     * Test that restoring a snapshot undoes moves, a death and a level change, and the game replays the same after.
+     */
+    @Test
+    void testSnapshot_restore() {
+        GameEngine game = new GameEngine(10, 10, null, 3L, 2);
+        GameSnapshot start = game.snapshot();
+        byte[] startCells = game.getBoard().toBytes();
+        game.movePlayer(true, true);
+        game.movePlayer(false, true);
+        GameSnapshot moved = game.snapshot();
+        byte[] movedCells = game.getBoard().toBytes();
+        int movedScore = game.getScore();
+        int movedHP = game.getPlayerHP();
+
+        game.setPlayerHP(0);
+        assertTrue(game.isGameOver());
+        game.restore(start);
+        assertFalse(game.isGameOver());
+        assertEquals(9, game.getPlayer().getRow());
+        assertEquals(0, game.getPlayer().getCol());
+        assertEquals(0, game.getCurrSteps());
+        assertEquals(10, game.getPlayerHP());
+        assertArrayEquals(startCells, game.getBoard().toBytes());
+
+        // The same moves after restoring play out the same, combat rolls included
+        game.movePlayer(true, true);
+        game.movePlayer(false, true);
+        assertEquals(movedScore, game.getScore());
+        assertEquals(movedHP, game.getPlayerHP());
+        assertArrayEquals(movedCells, game.getBoard().toBytes());
+        assertEquals(2, moved.getSteps());
+
+        game.nextLevel();
+        assertEquals(2, game.getLevel());
+        game.restore(moved);
+        assertEquals(1, game.getLevel());
+        assertArrayEquals(movedCells, game.getBoard().toBytes());
+
+        GameEngine other = new GameEngine(10, 10, null, 4L, 2);
+        assertThrows(IllegalArgumentException.class, () -> other.restore(moved));
+    }
+
+    /**
+     * Test that a headless game can be restored after it is over with its earlier levels,
+     * and a game whose score was recorded can't.
+     */
+    @Test
+    void testRestore_afterGameOver() throws Exception {
+        GameEngine game = new GameEngine(10, 3, null, 8L, 3);
+        game.nextLevel();
+        GameSnapshot secondLevel = game.snapshot();
+        game.setPlayerHP(0);
+        assertTrue(game.isGameOver());
+        game.restore(secondLevel);
+        assertFalse(game.isGameOver());
+        assertNotNull(game.getBoard(1));
+        game.nextLevel();
+        assertEquals(3, game.getLevel());
+
+        Path dir = Files.createTempDirectory("scores");
+        GameEngine recorded = new GameEngine(10, 3, null, 8L, 3);
+        recorded.setLeaderboard(Leaderboard.open(dir.resolve("scores.txt"), 3));
+        GameSnapshot start = recorded.snapshot();
+        recorded.setPlayerHP(0);
+        assertThrows(IllegalStateException.class, () -> recorded.restore(start));
+        Files.deleteIfExists(dir); // Lost games aren't logged, so nothing was written
+    }
+
+    /**
+     * Test that escaping or dying on the last step ends the game once, as a win or a death, not out of steps.
+     */
+    @Test
+    void testLastStep_endsGameOnce() {
+        List<String> ends = new ArrayList<>();
+        GameListener listener = new GameListener() {
+            @Override
+            public void onGameOver(GameEngine engine, String message, boolean won) {
+                ends.add(won ? "won" : message);
+            }
+        };
+
+        GameEngine escape = new GameEngine(10, 0, listener, 1L, 1);
+        escape.getBoard().setObject(8, 0, Board.LADDER);
+        escape.setScore(6);
+        escape.setCurrSteps(escape.getMaxSteps() - 1);
+        escape.movePlayer(true, true);
+        assertEquals(List.of("won"), ends);
+        assertEquals(6, escape.getScore());
+
+        ends.clear();
+        GameEngine death = new GameEngine(10, 0, listener, 1L, 1);
+        death.getBoard().setObject(8, 0, Board.TRAP);
+        death.setPlayerHP(1);
+        death.setCurrSteps(death.getMaxSteps() - 1);
+        death.movePlayer(true, true);
+        assertEquals(1, ends.size());
+        assertTrue(ends.getFirst().startsWith("You died"));
+    }
+
+    /**
+     * Test that a loaded game keeps the difficulty it was started with, even when the levels raised it past the cap.
+     */
+    @Test
+    void testApplySave_keepsStartDifficulty() {
+        GameEngine capped = new GameEngine(10, 9, null, 5L, 3);
+        capped.nextLevel();
+        assertEquals(10, capped.getDifficulty());
+
+        GameEngine loaded = new GameEngine(10, 0, null, 6L, 3);
+        loaded.applySave(capped.createSave());
+        assertEquals(9, loaded.getStartDifficulty());
+    }
+
+    /**
+     * Test that a large board gets objects in proportion to its area, one ladder, and the same level for a seed.
+     */
+    @Test
+    void testLargeBoard_scaledObjects() {
+        GameEngine large = new GameEngine(300, 2, null, 5L);
+        int[] counts = new int[16];
+        for (int row = 0; row < 300; row++) {
+            for (int col = 0; col < 300; col++) {
+                counts[large.getBoard().getObject(row, col)]++;
+            }
+        }
+        assertEquals(1, counts[Board.LADDER]);
+        assertEquals(1, counts[Board.ENTRANCE]);
+        assertEquals(4500, counts[Board.TRAP]);
+        assertEquals(1800, counts[Board.RANGED_MUTANT]);
+        assertEquals(1800, counts[Board.HEALTH_POTION]);
+
+        GameEngine again = new GameEngine(300, 2, null, 5L);
+        assertArrayEquals(large.getBoard().toBytes(), again.getBoard().toBytes());
+    }
+
     @AfterEach
     void tearDown() throws Exception {
         // Clean up the game file after tests
@@ -186,5 +421,6 @@ public class GameEngineTest {
         if (saveFile.exists()) {
             Files.delete(saveFile.toPath());
         }
+        Files.deleteIfExists(SaveFile.DEFAULT_PATH);
     }
 }
\ No newline at end of file
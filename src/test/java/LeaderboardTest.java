@@ -0,0 +1,198 @@
+import dungeon.engine.Leaderboard;
+import dungeon.engine.ScoreEntry;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class LeaderboardTest {
+
+    private Path dir;
+    private Path log;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("leaderboard");
+        log = dir.resolve("scores.txt");
+    }
+
+    /**
+     * Test that only the highest scores are kept, highest first, and lost games are not recorded.
+     */
+    @Test
+    void testSubmitKeepsTopScores() {
+        Leaderboard leaderboard = Leaderboard.open(log, 3);
+        int[] scores = {5, 20, -1, 12, 3, 20, 8};
+        for (int score : scores) {
+            leaderboard.submit(new ScoreEntry(score, "2025-05-30"));
+        }
+        leaderboard.flush();
+
+        List<ScoreEntry> top = leaderboard.top(5);
+        assertEquals(3, top.size());
+        assertEquals(20, top.get(0).getScore());
+        assertEquals(20, top.get(1).getScore());
+        assertEquals(12, top.get(2).getScore());
+    }
+
+    /**
+     * Test that reopening uses the index and picks up scores appended to the log since.
+     */
+    @Test
+    void testReopenReadsIndexAndNewScores() throws Exception {
+        Leaderboard leaderboard = Leaderboard.open(log, 3);
+        leaderboard.submit(new ScoreEntry(7, "2025-05-30"));
+        leaderboard.submit(new ScoreEntry(4, "2025-05-30"));
+        leaderboard.flush();
+        Files.writeString(log, "9 2025-06-01\nnot a score\n", StandardOpenOption.APPEND);
+
+        List<ScoreEntry> top = Leaderboard.open(log, 3).top(3);
+        assertEquals(List.of(9, 7, 4), top.stream().map(ScoreEntry::getScore).toList());
+        assertEquals("2025-06-01", top.get(0).getDate());
+    }
+
+    /**
+     * Test that no score is lost when many games submit at the same time.
+     */
+    @Test
+    void testConcurrentSubmit() throws Exception {
+        Leaderboard leaderboard = Leaderboard.open(log, 5);
+        int threads = 8;
+        int perThread = 500;
+        Thread[] games = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            games[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    leaderboard.submit(new ScoreEntry(offset + i, "2025-05-30"));
+                }
+            });
+            games[t].start();
+        }
+        for (Thread game : games) {
+            game.join();
+        }
+        leaderboard.flush();
+
+        assertEquals(threads * perThread, Files.readAllLines(log).size());
+        assertEquals(threads * perThread - 1, leaderboard.top(1).getFirst().getScore());
+        assertEquals(threads * perThread - 1, Leaderboard.open(log, 5).top(1).getFirst().getScore());
+    }
+
+    /**
+     * Test the top scores per difficulty, per date range and the percentile rank of a score.
+     */
+    @Test
+    void testQueries() {
+        Leaderboard leaderboard = Leaderboard.open(log, 3);
+        leaderboard.submit(ScoreEntry.of(10, 3, 2, 80, millis(2025, 5, 1)));
+        leaderboard.submit(ScoreEntry.of(30, 5, 1, 100, millis(2025, 5, 10)));
+        leaderboard.submit(ScoreEntry.of(20, 3, 2, 60, millis(2025, 5, 20)));
+        leaderboard.submit(ScoreEntry.of(40, 3, 2, 50, millis(2025, 6, 2)));
+        leaderboard.flush();
+
+        List<ScoreEntry> difficulty3 = leaderboard.top(5, 3);
+        assertEquals(List.of(40, 20, 10), difficulty3.stream().map(ScoreEntry::getScore).toList());
+        assertEquals(50, difficulty3.getFirst().getSteps());
+        assertTrue(leaderboard.top(5, 7).isEmpty());
+
+        List<ScoreEntry> may = leaderboard.top(5, LocalDate.of(2025, 5, 10), LocalDate.of(2025, 5, 31));
+        assertEquals(List.of(30, 20), may.stream().map(ScoreEntry::getScore).toList());
+        assertEquals(5, may.getFirst().getDifficulty());
+        assertEquals(1, may.getFirst().getLevelsCleared());
+
+        assertEquals(4, leaderboard.getGameCount());
+        assertEquals(62.5, leaderboard.percentileRank(30));
+        assertEquals(50.0, leaderboard.percentileRank(25));
+        assertEquals(100.0, leaderboard.percentileRank(99));
+
+        // The same answers from the files, after reopening
+        Leaderboard reopened = Leaderboard.open(log, 3);
+        assertEquals(62.5, reopened.percentileRank(30));
+        assertEquals(2, reopened.top(5, LocalDate.of(2025, 5, 10), LocalDate.of(2025, 5, 31)).size());
+    }
+
+    /**
+     * Test that games logged out of the order they ended, e.g. after the clock was set back, are still found by date,
+     * stamped no earlier than the game logged before them.
+     */
+    @Test
+    void testQueries_outOfOrderTimestamps() {
+        Leaderboard leaderboard = Leaderboard.open(log, 3);
+        leaderboard.submit(ScoreEntry.of(10, 3, 1, 40, millis(2025, 6, 2)));
+        leaderboard.flush();
+        leaderboard.submit(ScoreEntry.of(20, 3, 1, 40, millis(2025, 5, 20)));
+        leaderboard.submit(ScoreEntry.of(30, 3, 1, 40, millis(2025, 6, 3)));
+        leaderboard.flush();
+
+        List<ScoreEntry> june = leaderboard.top(5, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30));
+        assertEquals(List.of(30, 20, 10), june.stream().map(ScoreEntry::getScore).toList());
+        assertEquals(millis(2025, 6, 2), june.get(1).getTimestamp());
+        assertTrue(leaderboard.top(5, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 31)).isEmpty());
+
+        Leaderboard reopened = Leaderboard.open(log, 3);
+        assertEquals(3, reopened.top(5, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30)).size());
+    }
+
+    /**
+     * Test that scores that failed to be written are written again later, without another score being submitted.
+     */
+    @Test
+    void testFailedWriteIsRetried() throws Exception {
+        Files.createDirectory(log); // The log can't be opened while a directory is in its place
+        Leaderboard leaderboard = Leaderboard.open(log, 3);
+        leaderboard.submit(new ScoreEntry(7, "2025-05-30"));
+        leaderboard.flush();
+        assertEquals(0, leaderboard.getGameCount());
+
+        Files.delete(log);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (leaderboard.getGameCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, leaderboard.getGameCount());
+        assertEquals(7, leaderboard.top(1).getFirst().getScore());
+    }
+
+    /**
+     * Test that a watched leaderboard picks up scores another process appends to the log.
+     */
+    @Test
+    void testWatchPicksUpAppendedScores() throws Exception {
+        Files.writeString(log, "3 2025-05-30\n");
+        Leaderboard leaderboard = Leaderboard.openAsync(log, 3);
+        leaderboard.flush(); // Wait for the first load
+        assertEquals(3, leaderboard.top(1).getFirst().getScore());
+
+        CountDownLatch updated = new CountDownLatch(1);
+        leaderboard.addListener(() -> {
+            if (leaderboard.getGameCount() == 2) updated.countDown();
+        });
+        leaderboard.watch();
+        Files.writeString(log, "15 2025-05-31\n", StandardOpenOption.APPEND);
+
+        assertTrue(updated.await(10, TimeUnit.SECONDS), "the appended score should be read");
+        assertEquals(15, leaderboard.top(1).getFirst().getScore());
+    }
+
+    private static long millis(int year, int month, int day) {
+        return LocalDate.of(year, month, day).atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+}
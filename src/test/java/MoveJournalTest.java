@@ -0,0 +1,67 @@
+import dungeon.engine.GameEngine;
+import dungeon.engine.MoveJournal;
+import dungeon.engine.SaveState;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class MoveJournalTest {
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.createTempFile("journal", ".bin");
+    }
+
+    /**
+     * Test that replaying the journal rebuilds the game exactly, across a compaction.
+     */
+    @Test
+    void testRecoverReplaysMoves() throws Exception {
+        GameEngine engine = new GameEngine(10, 3, null, 7L);
+        MoveJournal journal = MoveJournal.start(engine, file);
+
+        // Walk back and forth along the bottom rows, long enough to compact at least once
+        for (int i = 0; i < 90 && !engine.isGameOver(); i++) {
+            engine.movePlayer(i % 2 == 0, (i / 2) % 2 == 0);
+        }
+        assertFalse(engine.isGameOver(), "the walk should not end the game");
+        journal.close();
+
+        assertRecovered(engine.createSave(), MoveJournal.recover(file).createSave());
+    }
+
+    /**
+     * Test that the journal is deleted when the game is over.
+     */
+    @Test
+    void testGameOverDeletesJournal() {
+        GameEngine engine = new GameEngine(10, 3, null, 7L);
+        MoveJournal.start(engine, file);
+        assertTrue(MoveJournal.exists(file));
+
+        engine.setPlayerHP(0);
+        assertFalse(MoveJournal.exists(file));
+        assertNull(engine.getJournal());
+    }
+
+    private static void assertRecovered(SaveState expected, SaveState actual) {
+        assertEquals(expected.level(), actual.level());
+        assertEquals(expected.playerRow(), actual.playerRow());
+        assertEquals(expected.playerCol(), actual.playerCol());
+        assertEquals(expected.steps(), actual.steps());
+        assertEquals(expected.hp(), actual.hp());
+        assertEquals(expected.score(), actual.score());
+        assertEquals(expected.startDifficulty(), actual.startDifficulty());
+        assertEquals(expected.rngState(), actual.rngState());
+        assertArrayEquals(expected.cells(), actual.cells());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+}
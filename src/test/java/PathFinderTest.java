@@ -0,0 +1,84 @@
+import dungeon.engine.Board;
+import dungeon.engine.Direction;
+import dungeon.engine.GameEngine;
+import dungeon.engine.PathFinder;
+import dungeon.engine.PathFinder.Weights;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathFinderTest {
+
+    private GameEngine engine;
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GameEngine(10, 0, null, 1L, 1);
+        board = engine.getBoard();
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 10; col++) {
+                board.setObject(row, col, Board.EMPTY);
+            }
+        }
+    }
+
+    /**
+     * Test that the shortest path goes straight through, and a costly path goes around a wall of traps.
+     */
+    @Test
+    void testFindPath_aroundTraps() {
+        for (int row = 0; row < 9; row++) {
+            board.setObject(row, 5, Board.TRAP);
+        }
+        PathFinder paths = engine.getPathFinder();
+        assertEquals(9, paths.findPath(0, 0, 0, 9, Weights.UNIFORM));
+        assertEquals(9, paths.getPathLength());
+
+        assertEquals(18, paths.findPath(0, 0, 0, 9, Weights.AVOID_DANGER)); // One trap is cheaper than going around
+        assertEquals(27, paths.findPath(0, 0, 0, 9, Weights.of(30, 4, 4)));
+        assertEquals(27, paths.getPathLength());
+        int row = 0;
+        int col = 0;
+        for (int i = 0; i < paths.getPathLength(); i++) {
+            Direction step = paths.getStep(i);
+            row += step.getRowStep();
+            col += step.getColStep();
+            assertNotEquals(Board.TRAP, board.getObject(row, col));
+        }
+        assertEquals(0, row);
+        assertEquals(9, col);
+    }
+
+    /**
+     * Test that the nearest object is found, and nothing is reachable past blocked cells.
+     */
+    @Test
+    void testFindNearest() {
+        board.setObject(2, 2, Board.GOLD);
+        board.setObject(8, 8, Board.GOLD);
+        PathFinder paths = engine.getPathFinder();
+        assertEquals(2, paths.findNearest(9, 9, Board.GOLD, Weights.UNIFORM));
+        assertEquals(8, paths.getEndRow());
+        assertEquals(8, paths.getEndCol());
+        assertEquals(PathFinder.UNREACHABLE, paths.findNearest(9, 9, Board.LADDER, Weights.UNIFORM));
+
+        for (int i = 0; i < 10; i++) {
+            board.setObject(i, 7, Board.TRAP);
+        }
+        Weights noTraps = Weights.of(Weights.BLOCKED, 1, 1);
+        assertTrue(paths.isReachable(9, 9, Board.GOLD, noTraps));
+        board.setObject(8, 8, Board.EMPTY);
+        assertFalse(paths.isReachable(9, 9, Board.GOLD, noTraps));
+        assertTrue(paths.isReachable(0, 0, Board.GOLD, noTraps));
+    }
+
+    /**
+     * Test that paths on a large board have the length of the straight line when every cell costs the same.
+     */
+    @Test
+    void testLargeBoard_shortestPath() {
+        GameEngine large = new GameEngine(1000, 5, null, 2L);
+        assertEquals(1998, large.getPathFinder().findPath(999, 0, 0, 999, Weights.UNIFORM));
+        assertTrue(large.getPathFinder().findPath(999, 0, 0, 999, Weights.AVOID_DANGER) >= 1998);
+    }
+}
@@ -0,0 +1,34 @@
+import dungeon.engine.Rng;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RngTest {
+
+    @Test
+    void testSameSeed_sameNumbers() {
+        Rng a = new Rng(7);
+        Rng b = new Rng(7);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.nextLong(), b.nextLong());
+        }
+    }
+
+    @Test
+    void testNextInt_withinBound() {
+        Rng rng = new Rng(1);
+        for (int i = 0; i < 1000; i++) {
+            int n = rng.nextInt(4);
+            assertTrue(n >= 0 && n < 4);
+        }
+    }
+
+    @Test
+    void testSetState_replaysSequence() {
+        Rng rng = new Rng(99);
+        rng.nextLong();
+        long state = rng.getState();
+        long expected = rng.nextLong();
+        rng.setState(state);
+        assertEquals(expected, rng.nextLong());
+    }
+}
@@ -0,0 +1,76 @@
+import dungeon.engine.Board;
+import dungeon.engine.SaveFile;
+import dungeon.engine.SaveState;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class SaveFileTest {
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.createTempFile("savegame", ".dat");
+    }
+
+    /**
+     * Test that a binary save is read back exactly, including floor tiles.
+     */
+    @Test
+    void testWriteAndRead() throws Exception {
+        Board board = new Board(4);
+        board.setObject(1, 2, Board.RANGED_MUTANT);
+        board.setFloorTile(3, 3, 2);
+        SaveState saved = new SaveState(2, 3, 0, 17, 6, 9, 5, 3, 42L, 1234L, 4, 30, board.toBytes());
+
+        SaveFile.write(saved, file);
+        SaveState loaded = SaveFile.read(file);
+
+        assertEquals(2, loaded.level());
+        assertEquals(17, loaded.steps());
+        assertEquals(3, loaded.startDifficulty());
+        assertEquals(42L, loaded.seed());
+        assertEquals(1234L, loaded.rngState());
+        assertEquals(30, loaded.levels());
+        assertArrayEquals(saved.cells(), loaded.cells());
+
+        Board loadedBoard = Board.fromBytes(loaded.size(), loaded.cells());
+        assertEquals(Board.RANGED_MUTANT, loadedBoard.getObject(1, 2));
+        assertEquals(1, loadedBoard.getRangedInRow(1));
+        assertEquals(2, loadedBoard.getFloorTile(3, 3));
+    }
+
+    /**
+     * Test that a save file in the old text format can still be read.
+     */
+    @Test
+    void testReadLegacyText() throws Exception {
+        StringBuilder text = new StringBuilder("\nLevel: 1\nPlayerPos: 1,0\nSteps: 3\nHP: 8\nScore: 2\nDifficulty: 3\n");
+        for (int row = 0; row < 2; row++) {
+            for (int col = 0; col < 2; col++) {
+                text.append("Cell (").append(row).append(",").append(col).append("): ")
+                        .append(row == 0 && col == 1 ? "Gold" : "None").append("\n");
+            }
+        }
+        Files.writeString(file, text);
+
+        SaveState loaded = SaveFile.read(file);
+        assertEquals(2, loaded.size());
+        assertEquals(8, loaded.hp());
+        assertEquals(3, loaded.startDifficulty()); // Guessed, level 1 hasn't raised it yet
+        assertEquals(Board.GOLD, Board.fromBytes(2, loaded.cells()).getObject(0, 1));
+    }
+
+    @Test
+    void testReadEmptyFile() throws Exception {
+        assertNull(SaveFile.read(file));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+}
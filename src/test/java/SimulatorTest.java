@@ -0,0 +1,37 @@
+import dungeon.sim.Bots;
+import dungeon.sim.EndReason;
+import dungeon.sim.SimulationStats;
+import dungeon.sim.Simulator;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorTest {
+
+    /**
+     * Test that every game is counted once, with one ending, and the same seed gives the same stats.
+     */
+    @Test
+    void testRun_countsEveryGame() {
+        SimulationStats stats = Simulator.run(Bots.RANDOM_WALK, 10, 2, 3, 1000, 42L);
+        assertEquals(1000, stats.getGames());
+        long endings = 0;
+        for (EndReason reason : EndReason.values()) {
+            endings += stats.getCount(reason);
+        }
+        assertEquals(1000, endings);
+
+        SimulationStats again = Simulator.run(Bots.RANDOM_WALK, 10, 2, 3, 1000, 42L);
+        assertEquals(stats.toCsvRow("bot", 10, 2, 3), again.toCsvRow("bot", 10, 2, 3));
+    }
+
+    /**
+     * Test that heading for the ladder wins more often than walking at random.
+     */
+    @Test
+    void testLadderRusher_beatsRandomWalk() {
+        SimulationStats rusher = Simulator.run(Bots.LADDER_RUSHER, 10, 2, 0, 500, 7L);
+        SimulationStats random = Simulator.run(Bots.RANDOM_WALK, 10, 2, 0, 500, 7L);
+        assertTrue(rusher.getWinRate() > random.getWinRate());
+        assertEquals(0, rusher.getCount(EndReason.OUT_OF_STEPS));
+    }
+}
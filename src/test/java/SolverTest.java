@@ -0,0 +1,69 @@
+import dungeon.engine.Board;
+import dungeon.engine.GameEngine;
+import dungeon.engine.Solver;
+import dungeon.engine.Solver.Solution;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverTest {
+
+    private GameEngine engine;
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GameEngine(10, 0, null, 1L, 1);
+        board = engine.getBoard();
+        for (int row = 0; row < 10; row++) {
+            for (int col = 0; col < 10; col++) {
+                if (row != engine.getPlayer().getRow() || col != engine.getPlayer().getCol()) {
+                    board.setObject(row, col, Board.EMPTY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that a level with no risk is worth all of its gold, and the first walk is to a gold coin.
+     */
+    @Test
+    void testSolve_safeLevel() {
+        board.setObject(0, 0, Board.GOLD);
+        board.setObject(0, 9, Board.GOLD);
+        board.setObject(5, 5, Board.LADDER);
+        Solution solution = Solver.solve(engine);
+        assertEquals(engine.getScore() + 4, solution.expectedScore(), 1e-6);
+        assertEquals(Board.GOLD, board.getObject(solution.targetRow(), solution.targetCol()));
+        assertTrue(solution.optimal());
+    }
+
+    /**
+     * Test that a ranged mutant guarding the gold makes it worth less than the gold, but still worth taking.
+     */
+    @Test
+    void testSolve_rangedRisk() {
+        board.setObject(0, 0, Board.GOLD);
+        board.setObject(0, 2, Board.RANGED_MUTANT);
+        board.setObject(9, 9, Board.LADDER);
+        Solution solution = Solver.solve(engine);
+        assertTrue(solution.expectedScore() > engine.getScore() + 2);
+        assertTrue(solution.expectedScore() <= engine.getScore() + 4);
+        assertTrue(solution.optimal());
+    }
+
+    /**
+     * Test that a level without a ladder can't be won, and a search past its budget is marked as not optimal.
+     */
+    @Test
+    void testSolve_noLadderAndBudget() {
+        board.setObject(0, 0, Board.GOLD);
+        Solution solution = Solver.solve(engine);
+        assertEquals(-1.0, solution.expectedScore(), 1e-6);
+        assertEquals(-1, solution.targetRow());
+
+        GameEngine hard = new GameEngine(10, 10, null, 3L, 1);
+        Solution limited = Solver.solve(hard, 1000, 16);
+        assertFalse(limited.optimal());
+        assertTrue(limited.expectedScore() >= -1);
+    }
+}